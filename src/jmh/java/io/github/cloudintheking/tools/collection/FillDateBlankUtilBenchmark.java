@@ -0,0 +1,128 @@
+package io.github.cloudintheking.tools.collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//填充空白基准: 粒度 × 区间槽位数 × 有数据槽位占比 × 每槽位行数
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FillDateBlankUtilBenchmark {
+
+    public static class BenchFillBlank extends FillDateBlankUtil.FillBlankBase<BenchFillBlank> {
+        private long sum;
+
+        public long getSum() {
+            return sum;
+        }
+
+        public void setSum(long sum) {
+            this.sum = sum;
+        }
+    }
+
+    @Param({"HOUR", "DAY", "MONTH"})
+    public FillDateBlankUtil.FillBlankTypeEnum granularity;
+
+    //区间长度(槽位数)
+    @Param({"100", "10000"})
+    public int slots;
+
+    //有数据的槽位占比
+    @Param({"0.1", "0.5", "1.0"})
+    public double density;
+
+    //有数据槽位的行数
+    @Param({"1", "4"})
+    public int rowsPerSlot;
+
+    private List<BenchFillBlank> origin;
+    private Date start;
+    private Date end;
+    private final FillBlankCache cache = new FillBlankCache(16, 16, 0, TimeUnit.SECONDS);
+
+    @Setup
+    public void setUp() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2000, Calendar.JANUARY, 1);
+        start = calendar.getTime();
+        Random random = new Random(20211201L);
+        origin = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            if (random.nextDouble() < density) {
+                for (int j = 0; j < rowsPerSlot; j++) {
+                    BenchFillBlank row = new BenchFillBlank();
+                    row.setYear(calendar.get(Calendar.YEAR));
+                    row.setMonth(calendar.get(Calendar.MONTH) + 1);
+                    row.setDay(calendar.get(Calendar.DAY_OF_MONTH));
+                    row.setHour(calendar.get(Calendar.HOUR_OF_DAY));
+                    row.setSum(j);
+                    origin.add(row);
+                }
+            }
+            calendar.add(granularity.getCalendarRule(), 1);
+        }
+        calendar.add(granularity.getCalendarRule(), -1);
+        end = calendar.getTime();
+    }
+
+    @Benchmark
+    public List fillBlank() throws InstantiationException, IllegalAccessException {
+        return FillDateBlankUtil.fillBlank(origin, granularity, start, end, fillBlankBase -> ((BenchFillBlank) fillBlankBase).setSum(0));
+    }
+
+    @Benchmark
+    public List<BenchFillBlank> fillBlankWithFactory() {
+        return FillDateBlankUtil.fillBlank(origin, granularity, start, end, BenchFillBlank::new, fillBlankBase -> ((BenchFillBlank) fillBlankBase).setSum(0));
+    }
+
+    @Benchmark
+    public long fillBlankStream() {
+        return FillDateBlankUtil.fillBlankStream(origin.stream(), granularity, start, end, fillBlankBase -> ((BenchFillBlank) fillBlankBase).setSum(0))
+                .mapToLong(BenchFillBlank::getSum)
+                .sum();
+    }
+
+    //只检查缺失时间点, 不创建填充元素
+    @Benchmark
+    public FillGapReport findGaps() {
+        return FillDateBlankUtil.findGaps(origin, granularity, 1, start, end);
+    }
+
+    @Benchmark
+    public List<Date> findDates() {
+        return FillDateBlankUtil.findDates(start, end, granularity);
+    }
+
+    //时间点表命中缓存, 仍按原始列表归并
+    @Benchmark
+    public List<BenchFillBlank> fillBlankCachedSlots() {
+        return cache.fillBlank(origin, granularity, 1, start, end, BenchFillBlank::new, fillBlankBase -> ((BenchFillBlank) fillBlankBase).setSum(0));
+    }
+
+    //整个结果命中缓存
+    @Benchmark
+    public List<BenchFillBlank> fillBlankCachedResult() {
+        return cache.fillBlank("dashboard", 1L, origin, granularity, 1, start, end, BenchFillBlank::new, fillBlankBase -> ((BenchFillBlank) fillBlankBase).setSum(0));
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.cloudintheking.tools.date;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//格式化基准: 返回String与写入复用的StringBuilder两条路径
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateFormatBenchmark {
+
+    @Param({DateUtil.PATTERN_DEFAULT, DateUtil.PATTERN_DEFAULT_ON_MINUTE, DateUtil.PATTERN_DEFAULT_ON_DAY, DateUtil.PATTERN_ISO})
+    public String pattern;
+
+    private static final int SIZE = 1024;
+
+    private final long[] millis = new long[SIZE];
+    private final Date[] dates = new Date[SIZE];
+    private final StringBuilder builder = new StringBuilder();
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20211201L);
+        for (int i = 0; i < SIZE; i++) {
+            millis[i] = (long) (random.nextDouble() * 3155760000000L);
+            dates[i] = new Date(millis[i]);
+        }
+    }
+
+    @Benchmark
+    public String format() {
+        return DateUtil.format(dates[index++ & (SIZE - 1)], pattern);
+    }
+
+    @Benchmark
+    public int formatToBuilder() {
+        builder.setLength(0);
+        return DateUtil.format(millis[index++ & (SIZE - 1)], pattern, builder).length();
+    }
+}
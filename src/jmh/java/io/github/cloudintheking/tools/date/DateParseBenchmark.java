@@ -0,0 +1,92 @@
+package io.github.cloudintheking.tools.date;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//自动识别解析基准, 每种支持的格式分别测量
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateParseBenchmark {
+
+    @Param({"MONTH", "DAY", "MINUTE", "SECOND", "ISO_SECOND", "ISO_MILLIS", "SECOND_DOT_NANOSECOND"})
+    public String format;
+
+    //是否补零, 如日志、CSV导出的定长日期
+    @Param({"false", "true"})
+    public boolean padded;
+
+    private static final int SIZE = 1024;
+
+    private final String[] sources = new String[SIZE];
+    private int index;
+    //全部样本按'\n'分隔的列, 批量解析时每次操作解析SIZE个值
+    private ByteBuffer column;
+    private final long[] columnMillis = new long[SIZE];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20211201L);
+        for (int i = 0; i < SIZE; i++) {
+            String pattern = padded ? "%02d" : "%d";
+            String date = (1970 + random.nextInt(100)) + "-" + String.format(pattern, 1 + random.nextInt(12)) + "-" + String.format(pattern, 1 + random.nextInt(28));
+            String time = String.format(pattern, random.nextInt(24)) + ":" + String.format(pattern, random.nextInt(60)) + ":" + String.format(pattern, random.nextInt(60));
+            switch (format) {
+                case "MONTH":
+                    sources[i] = date.substring(0, date.lastIndexOf('-'));
+                    break;
+                case "DAY":
+                    sources[i] = date;
+                    break;
+                case "MINUTE":
+                    sources[i] = date + " " + time.substring(0, time.lastIndexOf(':'));
+                    break;
+                case "SECOND":
+                    sources[i] = date + " " + time;
+                    break;
+                case "ISO_SECOND":
+                    sources[i] = date + "T" + time + "Z";
+                    break;
+                case "ISO_MILLIS":
+                    sources[i] = date + "T" + time + "." + String.format(padded ? "%03d" : "%d", random.nextInt(1000)) + "Z";
+                    break;
+                default:
+                    sources[i] = random.nextInt(Integer.MAX_VALUE) + "." + random.nextInt(1000000000);
+            }
+        }
+        column = ByteBuffer.wrap((String.join("\n", sources) + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public Date pareDate() throws ParseException {
+        return DateUtil.pareDate(sources[index++ & (SIZE - 1)]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] parseColumn() {
+        column.rewind();
+        new DateColumnParser().parseDelimited(column, (byte) '\n', columnMillis, 0);
+        return columnMillis;
+    }
+}
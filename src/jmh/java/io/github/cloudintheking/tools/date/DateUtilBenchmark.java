@@ -0,0 +1,154 @@
+package io.github.cloudintheking.tools.date;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+//日期工具方法基准, 原Calendar实现的各个热点方法
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateUtilBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final Date[] dates = new Date[SIZE];
+    private final LocalDateTime[] dateTimes = new LocalDateTime[SIZE];
+    //按时间升序、每小时一个的纪元毫秒, 用于批量方法
+    private final long[] hourly = new long[SIZE];
+    private final long[] result = new long[SIZE];
+    private final DateContext tenant = DateContext.of(TimeZone.getTimeZone("America/New_York"));
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20211201L);
+        for (int i = 0; i < SIZE; i++) {
+            dates[i] = new Date((long) (random.nextDouble() * 3155760000000L));
+            hourly[i] = 1609459200000L + i * 3600000L;
+            dateTimes[i] = LocalDateTime.ofInstant(dates[i].toInstant(), ZoneId.systemDefault());
+        }
+    }
+
+    private Date next() {
+        return dates[index++ & (SIZE - 1)];
+    }
+
+    @Benchmark
+    public Date getStartOfDay() {
+        return DateUtil.getStartOfDay(next());
+    }
+
+    @Benchmark
+    public Date getEndOfDay() {
+        return DateUtil.getEndOfDay(next());
+    }
+
+    @Benchmark
+    public int getWeekOfYear() {
+        return DateUtil.getWeekOfYear(next());
+    }
+
+    @Benchmark
+    public int getDayOfWeek() {
+        return DateUtil.getDayOfWeek(next());
+    }
+
+    @Benchmark
+    public Date addDate() {
+        return DateUtil.addDate(next(), Calendar.DAY_OF_MONTH, 7);
+    }
+
+    @Benchmark
+    public long betweenDay() {
+        return DateUtil.betweenDay(next(), next());
+    }
+
+    @Benchmark
+    public boolean isSameDay() {
+        return DateUtil.isSameDay(next(), next());
+    }
+
+    @Benchmark
+    public Date getDayOfWeekBySpecialDay() {
+        return DateUtil.getDayOfWeekBySpecialDay(next(), 3);
+    }
+
+    @Benchmark
+    public Date getFirstDayOfMonth() {
+        return DateUtil.getFirstDayOfMonth(next());
+    }
+
+    @Benchmark
+    public Date getLastDayOfMonth() {
+        return DateUtil.getLastDayOfMonth(next());
+    }
+
+    @Benchmark
+    public Date getFirstDayOfWeek() {
+        return DateUtil.getFirstDayOfWeek(next());
+    }
+
+    @Benchmark
+    public Date getLastDayOfWeek() {
+        return DateUtil.getLastDayOfWeek(next());
+    }
+
+    @Benchmark
+    public Date getFirstDayOfYear() {
+        return DateUtil.getFirstDayOfYear(next());
+    }
+
+    @Benchmark
+    public Date getLastDayOfYear() {
+        return DateUtil.getLastDayOfYear(next());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] getStartOfDayBulk() {
+        DateUtil.getStartOfDay(hourly, result);
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] getFirstDayOfMonthBulk() {
+        DateUtil.getFirstDayOfMonth(hourly, result);
+        return result;
+    }
+
+    @Benchmark
+    public long getStartOfDayByContext() {
+        return tenant.getStartOfDay(next().getTime());
+    }
+
+    @Benchmark
+    public int getWeekOfYearByContext() {
+        return tenant.getWeekOfYear(next().getTime());
+    }
+
+    @Benchmark
+    public LocalDateTime getStartOfDayByLocalDateTime() {
+        return DateUtil.getStartOfDay(dateTimes[index++ & (SIZE - 1)]);
+    }
+}
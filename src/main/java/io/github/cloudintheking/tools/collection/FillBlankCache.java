@@ -0,0 +1,365 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankGenFunc;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 填充缓存: 放在填充之前的可选记忆层, 适合看板按相同参数反复刷新的场景.
+ * 按(填充类型, 步长, 起点, 终点, 时区)缓存展开后的时间点表, 并可按调用方提供的请求键与版本号缓存整个填充结果;
+ * 两类缓存均有容量上限, 按最近最少使用淘汰, 可设置存活时间, 并统计命中/未命中次数; 线程安全
+ */
+public class FillBlankCache {
+
+    private final Lru<SlotKey, FillSlots> slotCache;
+    private final Lru<ResultKey, List<?>> resultCache;
+
+    /**
+     * @param maxSlotEntries   时间点表最多缓存条数
+     * @param maxResultEntries 填充结果最多缓存条数, 为0时不缓存结果
+     * @param ttl              存活时间, 不大于0时不过期
+     * @param unit             存活时间单位
+     */
+    public FillBlankCache(int maxSlotEntries, int maxResultEntries, long ttl, @NotNull TimeUnit unit) {
+        this(maxSlotEntries, maxResultEntries, ttl, unit, System::nanoTime);
+    }
+
+    FillBlankCache(int maxSlotEntries, int maxResultEntries, long ttl, TimeUnit unit, LongSupplier nanoClock) {
+        if (maxSlotEntries < 1) {
+            throw new IllegalArgumentException("maxSlotEntries should be positive!");
+        }
+        if (maxResultEntries < 0) {
+            throw new IllegalArgumentException("maxResultEntries should not be negative!");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit is null!");
+        }
+        long ttlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+        this.slotCache = new Lru<>(maxSlotEntries, ttlNanos, nanoClock);
+        this.resultCache = new Lru<>(maxResultEntries, ttlNanos, nanoClock);
+    }
+
+    /**
+     * 按步长获取时间段内时间点列表, 同{@link FillDateBlankUtil#findDates(Date, Date, FillBlankTypeEnum, int)}, 时间点表取自缓存
+     *
+     * @param startDate
+     * @param endDate
+     * @param fillBlankType
+     * @param step
+     * @return 新建的列表, 可修改
+     */
+    public List<Date> findDates(@NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankTypeEnum fillBlankType, int step) {
+        FillDateBlankUtil.checkSlotArgs(fillBlankType, step, startDate, endDate);
+        FillSlots slots = slots(fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault());
+        List<Date> lDate = new ArrayList<>(slots.size);
+        for (long time : slots.times) {
+            lDate.add(new Date(time));
+        }
+        return lDate;
+    }
+
+    /**
+     * 按指定时区、按步长获取时间段内时间点, 同{@link FillDateBlankUtil#findTimes(long, long, TimeZone, FillBlankTypeEnum, int)}
+     *
+     * @return 副本
+     */
+    public long[] findTimes(long startTime, long endTime, @NotNull TimeZone zone, @NotNull FillBlankTypeEnum fillBlankType, int step) {
+        FillDateBlankUtil.checkSlotArgs(fillBlankType, step, startTime, endTime);
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        return slots(fillBlankType, step, startTime, endTime, zone).times.clone();
+    }
+
+    /**
+     * 按步长空白填充, 同{@link FillDateBlankUtil#fillBlank(List, FillBlankTypeEnum, int, Date, Date, Supplier, FillBlankGenFunc)},
+     * 时间点表取自缓存, 每次仍按原始列表归并
+     *
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     * @return
+     */
+    public <T extends FillBlankBase> List<T> fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        checkFillArgs(fillBlankOrigin, fillBlankType, step, startDate, endDate, fillBlankFactory, fillBlankGenFunc);
+        FillSlots slots = slots(fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault());
+        return merge(fillBlankOrigin, slots, fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 缓存整个填充结果: 请求键与版本号相同且填充参数相同时直接返回缓存结果, 不读取原始列表;
+     * 原始数据变化时调用方须更换版本号(如数据版本、行集哈希)
+     *
+     * @param requestKey       请求键, 如看板组件ID, 须实现equals/hashCode
+     * @param version          原始数据版本或哈希
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 只读列表, 多个调用方共享, 元素不得修改
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends FillBlankBase> List<T> fillBlank(@NotNull Object requestKey, long version, List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        if (requestKey == null) {
+            throw new IllegalArgumentException("requestKey is null!");
+        }
+        checkFillArgs(fillBlankOrigin, fillBlankType, step, startDate, endDate, fillBlankFactory, fillBlankGenFunc);
+        SlotKey slotKey = new SlotKey(fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault());
+        ResultKey resultKey = new ResultKey(slotKey, requestKey, version);
+        List<T> fillBlankResult = (List<T>) resultCache.get(resultKey);
+        if (fillBlankResult == null) {
+            fillBlankResult = Collections.unmodifiableList(merge(fillBlankOrigin, slots(slotKey), fillBlankFactory, fillBlankGenFunc));
+            resultCache.put(resultKey, fillBlankResult);
+        }
+        return fillBlankResult;
+    }
+
+    private static void checkFillArgs(List<?> fillBlankOrigin, FillBlankTypeEnum fillBlankType, int step, Date startDate, Date endDate, Supplier<?> fillBlankFactory, FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        FillDateBlankUtil.checkSlotArgs(fillBlankType, step, startDate, endDate);
+        if (fillBlankGenFunc == null) {
+            throw new IllegalArgumentException("fillBlankGenFunc is null!");
+        }
+        if (fillBlankFactory == null) {
+            throw new IllegalArgumentException("fillBlankFactory is null!");
+        }
+    }
+
+    private static <T extends FillBlankBase> List<T> merge(List<T> fillBlankOrigin, FillSlots slots, Supplier<? extends T> fillBlankFactory, FillBlankGenFunc fillBlankGenFunc) {
+        List<T> sortedOrigin = FillDateBlankUtil.sortByDateKey(fillBlankOrigin);
+        List<T> fillBlankResult = new ArrayList<>(Math.max(slots.size, sortedOrigin.size()) + 16);
+        Iterator<T> iterator = new FillBlankIterator<>(sortedOrigin.iterator(), new FillSlotCursor(slots), fillBlankFactory, fillBlankGenFunc);
+        iterator.forEachRemaining(fillBlankResult::add);
+        return fillBlankResult;
+    }
+
+    private FillSlots slots(FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, TimeZone zone) {
+        return slots(new SlotKey(fillBlankType, step, startTime, endTime, zone));
+    }
+
+    private FillSlots slots(SlotKey key) {
+        FillSlots slots = slotCache.get(key);
+        if (slots == null) {
+            //并发未命中时可能重复展开, 结果相同, 后放入的覆盖先放入的
+            slots = FillSlots.of(key.fillBlankType, key.step, key.startTime, key.endTime, key.zone);
+            slotCache.put(key, slots);
+        }
+        return slots;
+    }
+
+    /**
+     * 清空全部缓存, 计数不清零
+     */
+    public void invalidateAll() {
+        slotCache.clear();
+        resultCache.clear();
+    }
+
+    public long getSlotHitCount() {
+        return slotCache.hits.sum();
+    }
+
+    public long getSlotMissCount() {
+        return slotCache.misses.sum();
+    }
+
+    public long getResultHitCount() {
+        return resultCache.hits.sum();
+    }
+
+    public long getResultMissCount() {
+        return resultCache.misses.sum();
+    }
+
+    /**
+     * 因容量或过期淘汰的条数
+     *
+     * @return
+     */
+    public long getEvictionCount() {
+        return slotCache.evictions.sum() + resultCache.evictions.sum();
+    }
+
+    public int getSlotSize() {
+        return slotCache.size();
+    }
+
+    public int getResultSize() {
+        return resultCache.size();
+    }
+
+    @Override
+    public String toString() {
+        return "FillBlankCache{slotHit=" + getSlotHitCount() + ", slotMiss=" + getSlotMissCount()
+                + ", resultHit=" + getResultHitCount() + ", resultMiss=" + getResultMissCount()
+                + ", eviction=" + getEvictionCount() + "}";
+    }
+
+    //按访问顺序淘汰的定长缓存, 条目带过期时间
+    private static final class Lru<K, V> {
+
+        private final int maxEntries;
+        private final long ttlNanos;
+        private final LongSupplier nanoClock;
+        private final LinkedHashMap<K, CacheEntry<V>> entries;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        Lru(int maxEntries, long ttlNanos, LongSupplier nanoClock) {
+            this.maxEntries = maxEntries;
+            this.ttlNanos = ttlNanos;
+            this.nanoClock = nanoClock;
+            this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                    if (size() > Lru.this.maxEntries) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        V get(K key) {
+            if (maxEntries == 0) {
+                misses.increment();
+                return null;
+            }
+            synchronized (entries) {
+                CacheEntry<V> entry = entries.get(key);
+                if (entry != null && ttlNanos > 0 && nanoClock.getAsLong() - entry.createdNanos >= ttlNanos) {
+                    entries.remove(key);
+                    evictions.increment();
+                    entry = null;
+                }
+                if (entry == null) {
+                    misses.increment();
+                    return null;
+                }
+                hits.increment();
+                return entry.value;
+            }
+        }
+
+        void put(K key, V value) {
+            if (maxEntries == 0) {
+                return;
+            }
+            CacheEntry<V> entry = new CacheEntry<>(value, ttlNanos > 0 ? nanoClock.getAsLong() : 0);
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        }
+
+        void clear() {
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+
+        int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+    }
+
+    private static final class CacheEntry<V> {
+        final V value;
+        final long createdNanos;
+
+        CacheEntry(V value, long createdNanos) {
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private static final class SlotKey {
+        final FillBlankTypeEnum fillBlankType;
+        final int step;
+        final long startTime;
+        final long endTime;
+        final TimeZone zone;
+
+        SlotKey(FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, TimeZone zone) {
+            this.fillBlankType = fillBlankType;
+            this.step = step;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.zone = zone;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SlotKey)) {
+                return false;
+            }
+            SlotKey other = (SlotKey) o;
+            return fillBlankType == other.fillBlankType && step == other.step && startTime == other.startTime
+                    && endTime == other.endTime && zone.getID().equals(other.zone.getID()) && zone.hasSameRules(other.zone);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fillBlankType, step, startTime, endTime, zone.getID());
+        }
+    }
+
+    private static final class ResultKey {
+        final SlotKey slotKey;
+        final Object requestKey;
+        final long version;
+
+        ResultKey(SlotKey slotKey, Object requestKey, long version) {
+            this.slotKey = slotKey;
+            this.requestKey = requestKey;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return version == other.version && slotKey.equals(other.slotKey) && requestKey.equals(other.requestKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * slotKey.hashCode() + requestKey.hashCode()) + Long.hashCode(version);
+        }
+    }
+}
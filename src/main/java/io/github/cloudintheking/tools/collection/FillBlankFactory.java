@@ -0,0 +1,101 @@
+package io.github.cloudintheking.tools.collection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * 填充元素工厂: 按类缓存无参构造器生成的Supplier, 创建填充元素的开销与直接new相同
+ */
+final class FillBlankFactory {
+
+    private static final ClassValue<Object> FACTORIES = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            try {
+                return createSupplier(type);
+            } catch (ReflectiveOperationException e) {
+                //缓存失败原因,避免重复解析
+                return e;
+            }
+        }
+    };
+
+    private FillBlankFactory() {
+    }
+
+    /**
+     * 获取类对应的缓存工厂
+     *
+     * @param elementClass 填充元素类型
+     * @return
+     * @throws IllegalAccessException 无参构造器不可访问
+     * @throws InstantiationException 抽象类或无无参构造器
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> of(Class<T> elementClass) throws IllegalAccessException, InstantiationException {
+        Object factory = FACTORIES.get(elementClass);
+        //缓存的异常各调用方共享, 每次包装为新异常抛出
+        if (factory instanceof IllegalAccessException) {
+            IllegalAccessException exception = new IllegalAccessException(elementClass.getName());
+            exception.initCause((Throwable) factory);
+            throw exception;
+        }
+        if (factory instanceof ReflectiveOperationException) {
+            InstantiationException exception = new InstantiationException(elementClass.getName());
+            exception.initCause((Throwable) factory);
+            throw exception;
+        }
+        return (Supplier<T>) factory;
+    }
+
+    /**
+     * 同{@link #of(Class)}, 失败时抛出IllegalStateException
+     *
+     * @param elementClass 填充元素类型
+     * @return
+     */
+    static <T> Supplier<T> ofUnchecked(Class<T> elementClass) {
+        try {
+            return of(elementClass);
+        } catch (IllegalAccessException | InstantiationException e) {
+            throw new IllegalStateException("can not create fill element of " + elementClass, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> createSupplier(Class<?> type) throws ReflectiveOperationException {
+        if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()) {
+            throw new InstantiationException(type.getName());
+        }
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        if (!Modifier.isPublic(constructor.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+            constructor.setAccessible(true);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflectConstructor(constructor);
+        try {
+            //优先通过LambdaMetafactory生成直接调用构造器的Supplier
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), handle, MethodType.methodType(type));
+            return (Supplier<Object>) callSite.getTarget().invokeExact();
+        } catch (Throwable e) {
+            //构造器对当前类不可直接链接时退回MethodHandle调用
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+}
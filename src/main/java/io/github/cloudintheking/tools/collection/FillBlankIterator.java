@@ -0,0 +1,171 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankGenFunc;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankListener;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+import java.util.function.Supplier;
+
+/**
+ * 惰性填充迭代器: 从按日期键升序的原始数据源中逐个拉取元素,按时间点即时生成填充元素,
+ * 只保存当前时间点与一个预读元素
+ *
+ * @param <T>
+ */
+class FillBlankIterator<T extends FillBlankBase> implements Iterator<T> {
+
+    private final Iterator<T> source;
+    private final FillBlankTypeEnum fillBlankType;
+    private final FillBlankGenFunc fillBlankGenFunc;
+    private final Supplier<? extends FillBlankBase> fillBlankFactory;
+    private final FillSlotCursor cursor;
+
+    //预读的原始元素及其日期键
+    private T pendingOrigin;
+    private long pendingKey;
+    //上一个已输出原始元素的桶键
+    private long lastOriginKey = Long.MIN_VALUE;
+    //下一个待返回元素
+    private T nextElement;
+
+    //计数供填充监听使用; 监听在创建时确定, 为空操作时不计时
+    private FillBlankListener fillBlankListener;
+    private long startNanos;
+    private int originCount;
+    private int slotCount;
+    private int synthesizedCount;
+
+    /**
+     * @param fillBlankFactory 填充元素工厂, 为空时按首个原始元素的泛型类型创建, 此时原始数据源不能为空
+     */
+    FillBlankIterator(Iterator<T> source, FillBlankTypeEnum fillBlankType, int step, Date startDate, Date endDate,
+                      Supplier<? extends FillBlankBase> fillBlankFactory, FillBlankGenFunc fillBlankGenFunc) {
+        this(source, fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault(), fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * @param startTime 填充时间起点, 纪元毫秒
+     * @param endTime   填充时间终点, 纪元毫秒
+     * @param zone      计算时间点所用时区
+     */
+    FillBlankIterator(Iterator<T> source, FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, TimeZone zone,
+                      Supplier<? extends FillBlankBase> fillBlankFactory, FillBlankGenFunc fillBlankGenFunc) {
+        this(source, new FillSlotCursor(fillBlankType, step, startTime, endTime, zone), fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * @param cursor 时间点游标, 如按缓存的时间点表回放
+     */
+    @SuppressWarnings("unchecked")
+    FillBlankIterator(Iterator<T> source, FillSlotCursor cursor, Supplier<? extends FillBlankBase> fillBlankFactory, FillBlankGenFunc fillBlankGenFunc) {
+        if (source == null || (fillBlankFactory == null && !source.hasNext())) {
+            throw new IllegalArgumentException("fillBlankOrigin is empty!");
+        }
+        this.source = source;
+        this.fillBlankType = cursor.getFillBlankType();
+        this.fillBlankGenFunc = fillBlankGenFunc;
+        if (source.hasNext()) {
+            this.pendingOrigin = source.next();
+            this.pendingKey = pendingOrigin.dateKey();
+        }
+        this.fillBlankFactory = fillBlankFactory != null ? fillBlankFactory
+                : FillBlankFactory.ofUnchecked((Class<? extends FillBlankBase>) pendingOrigin.getActualType());
+        this.cursor = cursor;
+        FillBlankListener current = FillDateBlankUtil.getListener();
+        if (current != FillDateBlankUtil.NOOP_LISTENER) {
+            this.fillBlankListener = current;
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 改由调用方上报填充监听, 如列表填充需要合并排序耗时
+     */
+    void detachListener() {
+        fillBlankListener = null;
+    }
+
+    int getOriginCount() {
+        return originCount;
+    }
+
+    int getSlotCount() {
+        return slotCount;
+    }
+
+    int getSynthesizedCount() {
+        return synthesizedCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextElement == null) {
+            nextElement = computeNext();
+        }
+        return nextElement != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T element = nextElement;
+        nextElement = null;
+        return element;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T computeNext() {
+        while (true) {
+            //先输出落在当前时间点区间及之前的原始数据
+            if (pendingOrigin != null) {
+                long originKey = fillBlankType.truncate(pendingKey);
+                if (!cursor.hasSlot() || originKey < cursor.getNextSlotKey()) {
+                    T origin = pendingOrigin;
+                    lastOriginKey = originKey;
+                    originCount++;
+                    pullOrigin();
+                    return origin;
+                }
+            }
+            if (!cursor.hasSlot()) {
+                if (fillBlankListener != null) {
+                    FillDateBlankUtil.fireFill(fillBlankListener, fillBlankType, originCount, slotCount, synthesizedCount, 0L, System.nanoTime() - startNanos);
+                    fillBlankListener = null;
+                }
+                return null;
+            }
+            slotCount++;
+            FillBlankBase fillBlankBase = null;
+            if (lastOriginKey < cursor.getSlotKey()) {
+                // 若不存在完整时间列表中,则调用填充生成函数生成填充数据
+                fillBlankBase = cursor.newFiller(fillBlankFactory, fillBlankGenFunc);
+                synthesizedCount++;
+            }
+            cursor.advance();
+            if (fillBlankBase != null) {
+                return (T) fillBlankBase;
+            }
+        }
+    }
+
+    private void pullOrigin() {
+        if (!source.hasNext()) {
+            pendingOrigin = null;
+            return;
+        }
+        T origin = source.next();
+        long dateKey = origin.dateKey();
+        if (dateKey < pendingKey) {
+            throw new IllegalStateException("fillBlankOrigin is not sorted by date: " + origin.getDateStr());
+        }
+        pendingOrigin = origin;
+        pendingKey = dateKey;
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankListener;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+import io.github.cloudintheking.tools.date.DateParseUtil;
+import io.github.cloudintheking.tools.date.DateParseUtil.DateParseFormatEnum;
+import io.github.cloudintheking.tools.date.DateParseUtil.DateParseListener;
+
+import javax.validation.constraints.NotNull;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 填充与日期解析的计数及耗时统计, 通过{@link #install()}注册为全局监听; 计数使用LongAdder, 耗时按2的幂分桶, 线程安全
+ */
+public class FillBlankMetrics implements FillBlankListener, DateParseListener {
+
+    private final LongAdder fillCount = new LongAdder();
+    private final LongAdder originCount = new LongAdder();
+    private final LongAdder slotCount = new LongAdder();
+    private final LongAdder synthesizedCount = new LongAdder();
+    private final LongAdder sortNanos = new LongAdder();
+    private final LatencyHistogram fillLatency = new LatencyHistogram();
+
+    private final LongAdder[] parseFormatCounts = new LongAdder[DateParseFormatEnum.values().length];
+    private final LongAdder parseFailureCount = new LongAdder();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+
+    public FillBlankMetrics() {
+        for (int i = 0; i < parseFormatCounts.length; i++) {
+            parseFormatCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 注册为填充与解析的全局监听, 替换已有监听
+     *
+     * @return this
+     */
+    public FillBlankMetrics install() {
+        FillDateBlankUtil.setListener(this);
+        DateParseUtil.setListener(this);
+        return this;
+    }
+
+    /**
+     * 若当前全局监听为本实例则恢复为空操作
+     */
+    public void uninstall() {
+        if (FillDateBlankUtil.getListener() == this) {
+            FillDateBlankUtil.setListener(null);
+        }
+        if (DateParseUtil.getListener() == this) {
+            DateParseUtil.setListener(null);
+        }
+    }
+
+    @Override
+    public void onFill(FillBlankTypeEnum fillBlankType, int origins, int slots, int synthesized, long sortNanos, long elapsedNanos) {
+        fillCount.increment();
+        originCount.add(origins);
+        slotCount.add(slots);
+        synthesizedCount.add(synthesized);
+        this.sortNanos.add(sortNanos);
+        fillLatency.record(elapsedNanos);
+    }
+
+    @Override
+    public void onParse(DateParseFormatEnum format, long nanos) {
+        parseFormatCounts[format.ordinal()].increment();
+        parseLatency.record(nanos);
+    }
+
+    @Override
+    public void onParseFailure(CharSequence source, RuntimeException cause) {
+        parseFailureCount.increment();
+    }
+
+    public long getFillCount() {
+        return fillCount.sum();
+    }
+
+    public long getOriginCount() {
+        return originCount.sum();
+    }
+
+    public long getSlotCount() {
+        return slotCount.sum();
+    }
+
+    public long getSynthesizedCount() {
+        return synthesizedCount.sum();
+    }
+
+    public long getSortNanos() {
+        return sortNanos.sum();
+    }
+
+    /**
+     * 填充比例: 生成的填充元素个数 / 遍历的时间点个数
+     *
+     * @return 无填充时为0
+     */
+    public double getFillRatio() {
+        long slots = slotCount.sum();
+        return slots == 0 ? 0D : (double) synthesizedCount.sum() / slots;
+    }
+
+    public LatencyHistogram getFillLatency() {
+        return fillLatency;
+    }
+
+    public long getParseCount(@NotNull DateParseFormatEnum format) {
+        return parseFormatCounts[format.ordinal()].sum();
+    }
+
+    /**
+     * 各格式成功解析次数
+     *
+     * @return 按格式声明顺序
+     */
+    public Map<DateParseFormatEnum, Long> getParseFormatCounts() {
+        Map<DateParseFormatEnum, Long> counts = new EnumMap<>(DateParseFormatEnum.class);
+        for (DateParseFormatEnum format : DateParseFormatEnum.values()) {
+            counts.put(format, parseFormatCounts[format.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    public long getParseFailureCount() {
+        return parseFailureCount.sum();
+    }
+
+    public LatencyHistogram getParseLatency() {
+        return parseLatency;
+    }
+
+    /**
+     * 清零全部计数; 与并发记录同时进行时结果为近似值
+     */
+    public void reset() {
+        fillCount.reset();
+        originCount.reset();
+        slotCount.reset();
+        synthesizedCount.reset();
+        sortNanos.reset();
+        fillLatency.reset();
+        for (LongAdder count : parseFormatCounts) {
+            count.reset();
+        }
+        parseFailureCount.reset();
+        parseLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "FillBlankMetrics{fillCount=" + getFillCount() + ", fillRatio=" + getFillRatio() + ", slotCount=" + getSlotCount()
+                + ", sortNanos=" + getSortNanos() + ", fillLatency=" + fillLatency + ", parseFormatCounts=" + getParseFormatCounts()
+                + ", parseFailureCount=" + getParseFailureCount() + ", parseLatency=" + parseLatency + '}';
+    }
+
+    /**
+     * 耗时直方图, 第i个桶统计[2^(i-1), 2^i)纳秒, 第0个桶统计0纳秒
+     */
+    public static class LatencyHistogram {
+
+        private static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder totalNanos = new LongAdder();
+
+        LatencyHistogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long value = Math.max(nanos, 0L);
+            buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+            totalNanos.add(value);
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            totalNanos.reset();
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * 各桶计数快照
+         *
+         * @return 长度64
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        /**
+         * 分位耗时的上界估计, 即分位所在桶的上界
+         *
+         * @param quantile 0到1之间, 如0.99
+         * @return 纳秒, 无记录时为0
+         */
+        public long getQuantileNanos(double quantile) {
+            if (quantile < 0D || quantile > 1D) {
+                throw new IllegalArgumentException("quantile should be between 0 and 1!");
+            }
+            long[] counts = getBucketCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i == 0 ? 0L : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + getCount() + ", totalNanos=" + getTotalNanos() + ", p50<=" + getQuantileNanos(0.5D) + ", p99<=" + getQuantileNanos(0.99D) + '}';
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+
+import javax.validation.constraints.NotNull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 填充结果落盘: 按顺序追加定长记录(日期键 + 若干double值)到内存映射文件, 再通过游标读回, 堆内只保留当前记录,
+ * 适合按分钟回填多年、多序列等无法整体放入堆内的场景; 与惰性填充配合使用, 如
+ * {@code spill.appendAll(FillDateBlankUtil.fillBlankIterator(origin, MINUTE, start, end, genFunc), T::getSum)}.
+ * 文件按段映射, 页缓存由操作系统管理; 写入中的段从小映射起按2倍扩大, 少量记录时文件不会按整段增长.
+ * 追加限单个线程; 游标可在写入期间或写完后从其他线程打开, 多个游标可并发读取, 每个游标只看到打开时已写入的记录.
+ * 映射要等段对象回收后才解除, 在Windows等平台上影响关闭时的截断与删除, 见{@link #close()}
+ */
+public class FillBlankSpill implements Closeable {
+
+    //默认每段映射的字节数
+    private static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+    //写入中的段首次映射的字节数
+    private static final int INITIAL_MAPPING_BYTES = 64 << 10;
+
+    private final Path file;
+    private final boolean temporary;
+    private final boolean writable;
+    private final int valueCount;
+    private final int recordBytes;
+    //每段记录数, 记录不跨段
+    private final int segmentRecords;
+    private final FileChannel channel;
+    //已映射的段, 只在持有锁时修改
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    //写入中的段、段序号及已映射的记录数, 由追加线程使用, 关闭时清空
+    private MappedByteBuffer writing;
+    private int writingIndex = -1;
+    private int writingRecords;
+    //写入记录后再更新, 游标读取到的记录数之前的数据均已写入
+    private volatile long size;
+    private volatile boolean closed;
+
+    private FillBlankSpill(Path file, boolean temporary, boolean writable, int valueCount, int segmentBytes) throws IOException {
+        if (valueCount < 0) {
+            throw new IllegalArgumentException("valueCount should not be negative!");
+        }
+        this.file = file;
+        this.temporary = temporary;
+        this.writable = writable;
+        this.valueCount = valueCount;
+        this.recordBytes = Long.BYTES + valueCount * Double.BYTES;
+        this.segmentRecords = Math.max(1, segmentBytes / recordBytes);
+        this.channel = writable
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                : FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    /**
+     * 新建或覆盖落盘文件, 关闭时截断到实际记录长度
+     *
+     * @param file       文件路径
+     * @param valueCount 每条记录的值个数
+     * @return
+     * @throws IOException
+     */
+    public static FillBlankSpill create(@NotNull Path file, int valueCount) throws IOException {
+        return create(file, valueCount, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param segmentBytes 每段映射的字节数, 不足一条记录时按一条记录
+     */
+    public static FillBlankSpill create(@NotNull Path file, int valueCount, int segmentBytes) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null!");
+        }
+        return new FillBlankSpill(file, false, true, valueCount, segmentBytes);
+    }
+
+    /**
+     * 在临时目录新建落盘文件, 关闭时删除
+     *
+     * @param valueCount 每条记录的值个数
+     * @return
+     * @throws IOException
+     */
+    public static FillBlankSpill createTemp(int valueCount) throws IOException {
+        return new FillBlankSpill(Files.createTempFile("fill-blank-", ".spill"), true, true, valueCount, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * 只读打开已关闭的落盘文件
+     *
+     * @param file       文件路径
+     * @param valueCount 写入时的每条记录值个数
+     * @return
+     * @throws IOException
+     */
+    public static FillBlankSpill open(@NotNull Path file, int valueCount) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null!");
+        }
+        FillBlankSpill spill = new FillBlankSpill(file, false, false, valueCount, DEFAULT_SEGMENT_BYTES);
+        long length = spill.channel.size();
+        if (length % spill.recordBytes != 0) {
+            spill.close();
+            throw new IllegalArgumentException("file length " + length + " is not a multiple of record size " + spill.recordBytes + "!");
+        }
+        spill.size = length / spill.recordBytes;
+        return spill;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * 已写入的记录数
+     *
+     * @return
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param dateKey 日期键, 见{@link FillBlankBase#dateKey()}
+     * @param values  值, 个数须为valueCount
+     */
+    public void append(long dateKey, @NotNull double... values) {
+        if (values.length != valueCount) {
+            throw new IllegalArgumentException("values length should be " + valueCount + "!");
+        }
+        ByteBuffer segment = writeSegment();
+        int pos = (int) (size % segmentRecords) * recordBytes;
+        segment.putLong(pos, dateKey);
+        for (int i = 0; i < valueCount; i++) {
+            segment.putDouble(pos + Long.BYTES + i * Double.BYTES, values[i]);
+        }
+        size++;
+    }
+
+    /**
+     * 依次追加填充结果, 值由各列函数从元素中取出
+     *
+     * @param filled  填充结果, 如fillBlankIterator返回的惰性迭代器
+     * @param columns 列函数, 个数须为valueCount
+     * @return 追加的记录数
+     */
+    @SafeVarargs
+    public final <T extends FillBlankBase> long appendAll(@NotNull Iterator<? extends T> filled, @NotNull ToDoubleFunction<? super T>... columns) {
+        if (columns.length != valueCount) {
+            throw new IllegalArgumentException("columns length should be " + valueCount + "!");
+        }
+        double[] values = new double[valueCount];
+        long count = 0;
+        while (filled.hasNext()) {
+            T element = filled.next();
+            for (int i = 0; i < valueCount; i++) {
+                values[i] = columns[i].applyAsDouble(element);
+            }
+            append(element.dateKey(), values);
+            count++;
+        }
+        return count;
+    }
+
+    private ByteBuffer writeSegment() {
+        int index = (int) (size / segmentRecords);
+        if (index == writingIndex && size % segmentRecords < writingRecords) {
+            return writing;
+        }
+        return growWriting(index);
+    }
+
+    //映射新段, 或将写入中的段按2倍重新映射; 原映射仍有效, 已打开的游标不受影响
+    private synchronized ByteBuffer growWriting(int index) {
+        checkOpen();
+        if (!writable) {
+            throw new IllegalStateException("spill is read only!");
+        }
+        int records = index == writingIndex
+                ? (int) Math.min(segmentRecords, writingRecords * 2L)
+                : Math.min(segmentRecords, Math.max(1, INITIAL_MAPPING_BYTES / recordBytes));
+        MappedByteBuffer segment = map(index, records, FileChannel.MapMode.READ_WRITE);
+        if (index == segments.size()) {
+            segments.add(segment);
+        } else {
+            segments.set(index, segment);
+        }
+        writing = segment;
+        writingIndex = index;
+        writingRecords = records;
+        return segment;
+    }
+
+    private MappedByteBuffer map(int index, long records, FileChannel.MapMode mode) {
+        try {
+            return channel.map(mode, (long) index * segmentRecords * recordBytes, records * recordBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //读取用的段, 可写时复用写入的段, 只读打开时按需映射
+    private synchronized ByteBuffer readSegment(int index) {
+        checkOpen();
+        while (segments.size() <= index) {
+            int next = segments.size();
+            segments.add(map(next, Math.min((long) segmentRecords, size - (long) next * segmentRecords), FileChannel.MapMode.READ_ONLY));
+        }
+        return ((ByteBuffer) segments.get(index)).duplicate();
+    }
+
+    /**
+     * 从第一条记录开始的读取游标; 游标只看到创建时已写入的记录
+     *
+     * @return
+     */
+    public Cursor cursor() {
+        checkOpen();
+        return new Cursor(size);
+    }
+
+    /**
+     * 将已写入的记录刷到磁盘
+     */
+    public synchronized void force() {
+        checkOpen();
+        if (writable) {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("spill is closed!");
+        }
+    }
+
+    /**
+     * 关闭文件; 可写文件截断到实际记录长度, 临时文件删除.
+     * <p>
+     * 映射没有公开的解除方法, 要等段对象及游标被GC回收后才解除, 在此之前仍占用地址空间与文件; 不强制解除, 因为解除后仍在读取的游标会使JVM崩溃.
+     * Windows等平台在映射解除前无法截断或删除文件: 截断失败时抛出IOException, 文件保留映射长度, 末尾为补零的空记录;
+     * 临时文件删除失败时改为JVM退出时再删除
+     *
+     * @throws IOException 截断失败
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.clear();
+        writing = null;
+        writingIndex = -1;
+        try {
+            if (writable && !temporary) {
+                truncate();
+            }
+        } finally {
+            channel.close();
+            if (temporary) {
+                deleteTemp();
+            }
+        }
+    }
+
+    private void truncate() throws IOException {
+        try {
+            channel.truncate(size * recordBytes);
+        } catch (IOException e) {
+            throw new IOException("can not truncate mapped file " + file + " to " + size + " records, mapping is still held", e);
+        }
+    }
+
+    //映射未解除时部分平台无法删除文件, 退回到JVM退出时删除
+    private void deleteTemp() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FillBlankSpill{file=" + file + ", valueCount=" + valueCount + ", size=" + size + '}';
+    }
+
+    /**
+     * 顺序读取游标, 非线程安全; 日期字段按日期键的布局取出, 见{@link FillDateBlankUtil#packDateKey(int, int, int, int, int)}
+     */
+    public class Cursor {
+        private final long limit;
+        //下一条记录序号
+        private long next;
+        private ByteBuffer segment;
+        private int segmentIndex = -1;
+        //当前记录在段内的字节位置, 未定位到记录时为-1
+        private int pos = -1;
+        private long dateKey;
+
+        private Cursor(long limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * 移到下一条记录
+         *
+         * @return 没有更多记录时返回false
+         */
+        public boolean next() {
+            if (next >= limit) {
+                return false;
+            }
+            int index = (int) (next / segmentRecords);
+            if (index != segmentIndex) {
+                segment = readSegment(index);
+                segmentIndex = index;
+            }
+            pos = (int) (next % segmentRecords) * recordBytes;
+            dateKey = segment.getLong(pos);
+            next++;
+            return true;
+        }
+
+        /**
+         * 定位到指定记录之前, 之后调用next读取该记录
+         *
+         * @param index 记录序号
+         */
+        public void seek(long index) {
+            if (index < 0 || index > limit) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + limit);
+            }
+            next = index;
+            pos = -1;
+        }
+
+        /**
+         * 当前记录序号
+         *
+         * @return
+         */
+        public long getIndex() {
+            return next - 1;
+        }
+
+        public long dateKey() {
+            checkCurrent();
+            return dateKey;
+        }
+
+        public int getYear() {
+            return (int) (dateKey() >> 32);
+        }
+
+        public int getMonth() {
+            return (int) (dateKey() >> 24 & 0xFF);
+        }
+
+        public int getDay() {
+            return (int) (dateKey() >> 16 & 0xFF);
+        }
+
+        public int getHour() {
+            return (int) (dateKey() >> 8 & 0xFF);
+        }
+
+        public int getMinute() {
+            return (int) (dateKey() & 0xFF);
+        }
+
+        public double getValue(int column) {
+            checkCurrent();
+            if (column < 0 || column >= valueCount) {
+                throw new IndexOutOfBoundsException("column: " + column + ", valueCount: " + valueCount);
+            }
+            return segment.getDouble(pos + Long.BYTES + column * Double.BYTES);
+        }
+
+        private void checkCurrent() {
+            if (pos < 0) {
+                throw new NoSuchElementException("call next() first!");
+            }
+        }
+    }
+}
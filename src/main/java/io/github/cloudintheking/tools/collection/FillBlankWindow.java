@@ -0,0 +1,266 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankGenFunc;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 滑动窗口填充: 保存固定时间点个数的当前窗口, 接收新到的原始数据, 向前滑动时淘汰过期时间点、只为新进入的时间点生成填充元素,
+ * 每次滑动的开销与新增时间点个数成正比而非窗口长度, 跳过的时间点多于窗口长度时只为最后窗口长度个时间点生成填充元素; 时间点网格由首个窗口起点确定, 窗口内的结果与从该起点整体fillBlank后截取窗口部分一致, 落在窗口外的原始数据忽略.
+ * 非线程安全
+ *
+ * @param <T>
+ */
+public class FillBlankWindow<T extends FillBlankBase> {
+
+    private final FillBlankTypeEnum fillBlankType;
+    private final Supplier<? extends T> fillBlankFactory;
+    private final FillBlankGenFunc fillBlankGenFunc;
+    //停在下一个将进入窗口的时间点
+    private final FillSlotCursor cursor;
+
+    //按时间点环形存放, 逻辑下标i对应物理下标(head + i) % capacity
+    private final int capacity;
+    private final long[] keys;
+    private final long[] times;
+    private final Object[] fillers;
+    private final Object[] rows;
+    private int head;
+
+    /**
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param windowSize       窗口内时间点个数, 如按时填充最近24小时为24
+     * @param startDate        首个窗口的起点, 对齐规则同fillBlank
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     */
+    public FillBlankWindow(@NotNull FillBlankTypeEnum fillBlankType, int step, int windowSize, @NotNull Date startDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        this(fillBlankType, step, windowSize, checkStartDate(startDate), TimeZone.getDefault(), fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param windowSize       窗口内时间点个数
+     * @param startTime        首个窗口的起点, 纪元毫秒
+     * @param zone             计算时间点与日期字段所用时区
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     */
+    public FillBlankWindow(@NotNull FillBlankTypeEnum fillBlankType, int step, int windowSize, long startTime, @NotNull TimeZone zone, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        FillDateBlankUtil.checkSlotArgs(fillBlankType, step, startTime, startTime);
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize should be positive!");
+        }
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        if (fillBlankFactory == null) {
+            throw new IllegalArgumentException("fillBlankFactory is null!");
+        }
+        if (fillBlankGenFunc == null) {
+            throw new IllegalArgumentException("fillBlankGenFunc is null!");
+        }
+        this.fillBlankType = fillBlankType;
+        this.fillBlankFactory = fillBlankFactory;
+        this.fillBlankGenFunc = fillBlankGenFunc;
+        this.cursor = new FillSlotCursor(fillBlankType, step, startTime, Long.MAX_VALUE, (TimeZone) zone.clone());
+        this.capacity = windowSize;
+        //多一位存放末尾时间点区间的上界
+        this.keys = new long[windowSize + 1];
+        this.times = new long[windowSize];
+        this.fillers = new Object[windowSize];
+        this.rows = new Object[windowSize];
+        for (int i = 0; i < windowSize; i++) {
+            enter(i);
+        }
+    }
+
+    private static long checkStartDate(Date startDate) {
+        if (startDate == null) {
+            throw new IllegalArgumentException("startDate or endDate is null!");
+        }
+        return startDate.getTime();
+    }
+
+    public int getWindowSize() {
+        return capacity;
+    }
+
+    /**
+     * 窗口首个时间点, 纪元毫秒
+     *
+     * @return
+     */
+    public long getStartTime() {
+        return times[head];
+    }
+
+    /**
+     * 窗口末尾时间点, 纪元毫秒
+     *
+     * @return
+     */
+    public long getEndTime() {
+        return times[physical(capacity - 1)];
+    }
+
+    /**
+     * 向前滑动, 直到窗口末尾为不晚于endTime的最后一个时间点; endTime早于当前末尾时不滑动
+     *
+     * @param endTime 纪元毫秒, 如当前时间
+     * @return 新进入窗口的时间点个数
+     */
+    public int advanceTo(long endTime) {
+        int entered = cursor.countUntil(endTime);
+        slide(entered);
+        return entered;
+    }
+
+    public int advanceTo(@NotNull Date endDate) {
+        return advanceTo(endDate.getTime());
+    }
+
+    /**
+     * 向前滑动指定时间点个数
+     *
+     * @param slots 时间点个数
+     */
+    public void advance(int slots) {
+        if (slots < 0) {
+            throw new IllegalArgumentException("slots should not be negative!");
+        }
+        slide(slots);
+    }
+
+    //淘汰最早的slots个时间点, 后续时间点依次进入窗口末尾; 不少于窗口长度时游标直接跳到最后窗口长度个时间点, 整个窗口重建
+    private void slide(int slots) {
+        if (slots >= capacity) {
+            cursor.skip(slots - capacity);
+            head = 0;
+            for (int i = 0; i < capacity; i++) {
+                enter(i);
+            }
+            return;
+        }
+        for (int i = 0; i < slots; i++) {
+            int slot = head;
+            head = physical(1);
+            enter(slot);
+        }
+    }
+
+    //游标当前时间点写入物理位置slot并生成填充元素, 游标推进到下一个时间点
+    private void enter(int slot) {
+        keys[slot] = cursor.getSlotKey();
+        times[slot] = cursor.getTime();
+        rows[slot] = null;
+        fillers[slot] = cursor.newFiller(fillBlankFactory, fillBlankGenFunc);
+        keys[capacity] = cursor.getNextSlotKey();
+        cursor.advance();
+    }
+
+    /**
+     * 写入原始数据, 替换所在时间点的填充元素; 同一时间点的多条数据按日期键升序, 日期键相同的保持写入顺序
+     *
+     * @param origin 原始数据
+     * @return 是否落在当前窗口内
+     */
+    @SuppressWarnings("unchecked")
+    public boolean add(@NotNull T origin) {
+        int index = indexOf(fillBlankType.truncate(origin.dateKey()));
+        if (index < 0) {
+            return false;
+        }
+        int slot = physical(index);
+        List<T> slotRows = (List<T>) rows[slot];
+        if (slotRows == null) {
+            slotRows = new ArrayList<>(2);
+            rows[slot] = slotRows;
+            fillers[slot] = null;
+        }
+        long dateKey = origin.dateKey();
+        int position = slotRows.size();
+        while (position > 0 && slotRows.get(position - 1).dateKey() > dateKey) {
+            position--;
+        }
+        slotRows.add(position, origin);
+        return true;
+    }
+
+    /**
+     * 批量写入原始数据
+     *
+     * @param fillBlankOrigin 原始数据, 无需有序
+     * @return 落在当前窗口内的条数
+     */
+    public int addAll(@NotNull Iterable<? extends T> fillBlankOrigin) {
+        int count = 0;
+        for (T origin : fillBlankOrigin) {
+            if (add(origin)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //桶键所在时间点的逻辑下标, 窗口外返回-1
+    private int indexOf(long key) {
+        if (key < keys[head] || key >= keys[capacity]) {
+            return -1;
+        }
+        int low = 0;
+        int high = capacity - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (keys[physical(mid)] <= key) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int physical(int index) {
+        int slot = head + index;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+
+    /**
+     * 按时间顺序遍历当前窗口, 有原始数据的时间点输出原始数据, 否则输出填充元素
+     *
+     * @param action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull Consumer<? super T> action) {
+        for (int i = 0; i < capacity; i++) {
+            int slot = physical(i);
+            if (rows[slot] != null) {
+                ((List<T>) rows[slot]).forEach(action);
+            } else {
+                action.accept((T) fillers[slot]);
+            }
+        }
+    }
+
+    /**
+     * 当前窗口的稠密视图; 只复制引用, 不重新填充
+     *
+     * @return 新建的列表
+     */
+    public List<T> getView() {
+        List<T> view = new ArrayList<>(capacity + 8);
+        forEach(view::add);
+        return view;
+    }
+}
@@ -0,0 +1,333 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 时间桶聚合: 单次遍历原始时间点数据, 按填充类型与步长归入时间点, 以原始类型归约到按时间点下标排列的数组,
+ * 时间点与{@link FillDateBlankUtil#fillBlank(List, FillBlankTypeEnum, int, Date, Date, FillDateBlankUtil.FillBlankGenFunc)}一致,
+ * 无数据的时间点取默认值; 替代"分组 -> 填充 -> 排序"三步, 非线程安全
+ */
+public class FillBucketAggregator {
+
+    //原始类型归约函数
+    public interface FillBucketReducer {
+        /**
+         * 归约初始值
+         */
+        double identity();
+
+        double reduce(double accumulated, double value);
+
+        /**
+         * 输出前的最终计算, 如平均值
+         *
+         * @param accumulated 归约结果
+         * @param count       归入的数据条数
+         * @return
+         */
+        default double finish(double accumulated, long count) {
+            return accumulated;
+        }
+
+        /**
+         * 合并两个时间点的归约结果, 用于由细粒度结果汇总粗粒度结果; 默认按reduce合并,
+         * 适用于部分结果与数据值同类的归约(如求和、最值), 否则须覆盖
+         *
+         * @param accumulated 归约结果
+         * @param partial     另一部分的归约结果
+         * @return
+         */
+        default double combine(double accumulated, double partial) {
+            return reduce(accumulated, partial);
+        }
+    }
+
+    public enum FillBucketReducerEnum implements FillBucketReducer {
+        SUM {
+            @Override
+            public double reduce(double accumulated, double value) {
+                return accumulated + value;
+            }
+        },
+        COUNT {
+            @Override
+            public double reduce(double accumulated, double value) {
+                return accumulated + 1;
+            }
+
+            @Override
+            public double combine(double accumulated, double partial) {
+                return accumulated + partial;
+            }
+        },
+        MIN {
+            @Override
+            public double identity() {
+                return Double.POSITIVE_INFINITY;
+            }
+
+            @Override
+            public double reduce(double accumulated, double value) {
+                return Math.min(accumulated, value);
+            }
+        },
+        MAX {
+            @Override
+            public double identity() {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            @Override
+            public double reduce(double accumulated, double value) {
+                return Math.max(accumulated, value);
+            }
+        },
+        AVG {
+            @Override
+            public double reduce(double accumulated, double value) {
+                return accumulated + value;
+            }
+
+            @Override
+            public double finish(double accumulated, long count) {
+                return accumulated / count;
+            }
+        };
+
+        @Override
+        public double identity() {
+            return 0;
+        }
+    }
+
+    private final FillSlots slots;
+    private final FillBucketReducer reducer;
+    private final double defaultValue;
+    private final TimeZone zone;
+    private final double[] accumulators;
+    private final long[] counts;
+    //上一条数据所在时间点, 数据按时间聚集时免去查找
+    private int lastIndex;
+    private long droppedCount;
+
+    /**
+     * @param fillBlankType 填充类型
+     * @param startDate     填充时间起点
+     * @param endDate       填充时间终点
+     * @param reducer       归约函数, 如FillBucketReducerEnum.SUM
+     * @param defaultValue  无数据时间点的取值
+     */
+    public FillBucketAggregator(@NotNull FillBlankTypeEnum fillBlankType, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBucketReducer reducer, double defaultValue) {
+        this(fillBlankType, 1, startDate, endDate, reducer, defaultValue);
+    }
+
+    /**
+     * @param fillBlankType 填充类型
+     * @param step          步长,填充类型单位的整数倍
+     * @param startDate     填充时间起点
+     * @param endDate       填充时间终点
+     * @param reducer       归约函数, 如FillBucketReducerEnum.SUM
+     * @param defaultValue  无数据时间点的取值
+     */
+    public FillBucketAggregator(@NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBucketReducer reducer, double defaultValue) {
+        FillDateBlankUtil.checkSlotArgs(fillBlankType, step, startDate, endDate);
+        if (reducer == null) {
+            throw new IllegalArgumentException("reducer is null!");
+        }
+        this.slots = FillSlots.of(fillBlankType, step, startDate, endDate);
+        this.reducer = reducer;
+        this.defaultValue = defaultValue;
+        this.zone = TimeZone.getDefault();
+        this.accumulators = new double[slots.size];
+        Arrays.fill(this.accumulators, reducer.identity());
+        this.counts = new long[slots.size];
+    }
+
+    FillBucketAggregator(FillSlots slots, FillBucketReducer reducer, double defaultValue, TimeZone zone) {
+        this.slots = slots;
+        this.reducer = reducer;
+        this.defaultValue = defaultValue;
+        this.zone = zone;
+        this.accumulators = new double[slots.size];
+        Arrays.fill(this.accumulators, reducer.identity());
+        this.counts = new long[slots.size];
+    }
+
+    /**
+     * 把更细粒度聚合的各时间点结果并入所在的时间点, 细粒度时间点须完整落在本聚合的某个时间点内, 归约函数须相同
+     *
+     * @param finer 细粒度聚合
+     */
+    void rollupFrom(FillBucketAggregator finer) {
+        FillSlots finerSlots = finer.slots;
+        int index = 0;
+        for (int i = 0; i < finerSlots.size; i++) {
+            if (finer.counts[i] == 0) {
+                continue;
+            }
+            int found = slots.indexOf(finerSlots.fields[i], index);
+            if (found < 0) {
+                continue;
+            }
+            index = found;
+            accumulators[index] = counts[index] == 0 ? finer.accumulators[i] : reducer.combine(accumulators[index], finer.accumulators[i]);
+            counts[index] += finer.counts[i];
+        }
+    }
+
+    //清空归约结果
+    void reset() {
+        Arrays.fill(accumulators, reducer.identity());
+        Arrays.fill(counts, 0);
+        droppedCount = 0;
+        lastIndex = 0;
+    }
+
+    /**
+     * 归入一条数据
+     *
+     * @param epochMillis 数据时间, 纪元毫秒
+     * @param value       数据值
+     * @return 时间落在填充区间外时返回false并忽略
+     */
+    public boolean accept(long epochMillis, double value) {
+        int index = indexOf(epochMillis);
+        if (index < 0) {
+            droppedCount++;
+            return false;
+        }
+        accumulators[index] = reducer.reduce(accumulators[index], value);
+        counts[index]++;
+        return true;
+    }
+
+    public boolean accept(@NotNull Date date, double value) {
+        return accept(date.getTime(), value);
+    }
+
+    /**
+     * 批量归入
+     *
+     * @param epochMillis 数据时间
+     * @param values      数据值, 与时间一一对应
+     * @return 归入的条数
+     */
+    public int acceptAll(@NotNull long[] epochMillis, @NotNull double[] values) {
+        if (epochMillis.length != values.length) {
+            throw new IllegalArgumentException("epochMillis and values should have the same length!");
+        }
+        int accepted = 0;
+        for (int i = 0; i < epochMillis.length; i++) {
+            if (accept(epochMillis[i], values[i])) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 数据所在时间点下标
+     *
+     * @param epochMillis 纪元毫秒
+     * @return 落在填充区间外时返回-1
+     */
+    public int indexOf(long epochMillis) {
+        int index = slots.indexOf(FillSlots.dateKeyOf(epochMillis, zone), lastIndex);
+        if (index >= 0) {
+            lastIndex = index;
+        }
+        return index;
+    }
+
+    public int getSlotCount() {
+        return slots.size;
+    }
+
+    /**
+     * 各时间点的时间, 纪元毫秒
+     *
+     * @return 副本
+     */
+    public long[] getSlotTimes() {
+        return slots.times.clone();
+    }
+
+    /**
+     * 各时间点的归约结果, 无数据的时间点为默认值
+     *
+     * @return
+     */
+    public double[] getValues() {
+        double[] values = new double[slots.size];
+        for (int i = 0; i < slots.size; i++) {
+            values[i] = counts[i] == 0 ? defaultValue : reducer.finish(accumulators[i], counts[i]);
+        }
+        return values;
+    }
+
+    /**
+     * 各时间点归入的数据条数
+     *
+     * @return 副本
+     */
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * 落在填充区间外被忽略的数据条数
+     *
+     * @return
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * 转换为列式序列, 无数据的时间点标记为填充生成
+     *
+     * @param valueColumn 归约结果的列名
+     * @return
+     */
+    public FillSeries toSeries(@NotNull String valueColumn) {
+        BitSet synthesized = new BitSet(slots.size);
+        for (int i = 0; i < slots.size; i++) {
+            if (counts[i] == 0) {
+                synthesized.set(i);
+            }
+        }
+        FillSeries series = new FillSeries(slots, synthesized);
+        System.arraycopy(getValues(), 0, series.addDoubleColumn(valueColumn, defaultValue), 0, slots.size);
+        return series;
+    }
+
+    /**
+     * 转换为完整的填充列表, 每个时间点一个元素, 日期字段与fillBlank生成的填充元素一致
+     *
+     * @param fillBlankFactory 元素工厂, 如TestFillBlank::new
+     * @param valueSetter      写入归约结果, 如TestFillBlank::setSum
+     * @return
+     */
+    public <T extends FillBlankBase> List<T> toList(@NotNull Supplier<? extends T> fillBlankFactory, @NotNull ObjDoubleConsumer<? super T> valueSetter) {
+        double[] values = getValues();
+        List<T> fillBlankResult = new ArrayList<>(slots.size);
+        for (int i = 0; i < slots.size; i++) {
+            T fillBlankBase = fillBlankFactory.get();
+            slots.setDateFields(fillBlankBase, i);
+            valueSetter.accept(fillBlankBase, values[i]);
+            fillBlankResult.add(fillBlankBase);
+        }
+        return fillBlankResult;
+    }
+}
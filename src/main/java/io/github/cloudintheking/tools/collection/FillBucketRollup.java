@@ -0,0 +1,177 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillBucketAggregator.FillBucketReducer;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * 多粒度汇总: 原始数据只按最细粒度归入一次, 较粗粒度逐级由次细粒度的时间点结果合并得到(如分 -> 时 -> 天 -> 月),
+ * 每个粒度输出一个与单独使用{@link FillBucketAggregator}相同的结果, 总开销约为一次遍历加各粒度时间点数之和;
+ * 内部各粒度按最粗粒度时间点的完整边界展开, 保证区间两端的粗粒度时间点包含完整数据. 非线程安全
+ */
+public class FillBucketRollup {
+
+    //按粒度由细到粗排列的内部聚合, 首个为归入原始数据的最细粒度
+    private final FillBlankTypeEnum[] levelTypes;
+    private final FillBucketAggregator[] levels;
+    //各内部聚合由哪一级合并得到, 最细粒度为-1
+    private final int[] parents;
+    //按请求顺序排列的各粒度输出
+    private final Map<FillBlankTypeEnum, FillBucketAggregator> results = new LinkedHashMap<>();
+    private boolean dirty = true;
+
+    /**
+     * @param startDate    填充时间起点
+     * @param endDate      填充时间终点
+     * @param reducer      归约函数, 须支持合并部分结果, 见{@link FillBucketReducer#combine(double, double)}
+     * @param defaultValue 无数据时间点的取值
+     * @param resolutions  需要输出的粒度, 按周不能汇总为按月/按年
+     */
+    public FillBucketRollup(@NotNull Date startDate, @NotNull Date endDate, @NotNull FillBucketReducer reducer, double defaultValue, @NotNull FillBlankTypeEnum... resolutions) {
+        if (reducer == null) {
+            throw new IllegalArgumentException("reducer is null!");
+        }
+        if (resolutions == null || resolutions.length == 0) {
+            throw new IllegalArgumentException("resolutions is empty!");
+        }
+        TimeZone zone = TimeZone.getDefault();
+        Map<FillBlankTypeEnum, FillSlots> outputs = new EnumMap<>(FillBlankTypeEnum.class);
+        for (FillBlankTypeEnum resolution : resolutions) {
+            FillDateBlankUtil.checkSlotArgs(resolution, 1, startDate, endDate);
+            outputs.computeIfAbsent(resolution, type -> FillSlots.of(type, 1, startDate, endDate));
+        }
+        //内部区间覆盖各粒度首尾时间点的完整范围
+        long extendedStart = Long.MAX_VALUE;
+        long extendedEnd = Long.MIN_VALUE;
+        for (FillSlots slots : outputs.values()) {
+            extendedStart = Math.min(extendedStart, FillSlots.keyStartOf(slots.keys[0], zone));
+            extendedEnd = Math.max(extendedEnd, FillSlots.keyStartOf(slots.keys[slots.size], zone) - 1);
+        }
+        this.levelTypes = outputs.keySet().stream().sorted((a, b) -> rank(a) - rank(b)).toArray(FillBlankTypeEnum[]::new);
+        this.levels = new FillBucketAggregator[levelTypes.length];
+        this.parents = new int[levelTypes.length];
+        for (int i = 0; i < levelTypes.length; i++) {
+            levels[i] = new FillBucketAggregator(FillSlots.of(levelTypes[i], 1, extendedStart, extendedEnd, zone), reducer, defaultValue, zone);
+            parents[i] = -1;
+            for (int j = i - 1; j >= 0; j--) {
+                if (nests(levelTypes[j], levelTypes[i])) {
+                    parents[i] = j;
+                    break;
+                }
+            }
+            if (i > 0 && parents[i] < 0) {
+                throw new IllegalArgumentException(levelTypes[0] + " cannot be rolled up into " + levelTypes[i] + "!");
+            }
+        }
+        for (FillBlankTypeEnum resolution : resolutions) {
+            results.computeIfAbsent(resolution, type -> new FillBucketAggregator(outputs.get(type), reducer, defaultValue, zone));
+        }
+    }
+
+    //粒度由细到粗的次序
+    private static int rank(FillBlankTypeEnum type) {
+        switch (type) {
+            case MINUTE:
+                return 0;
+            case HOUR:
+                return 1;
+            case DAY:
+                return 2;
+            case WEEK:
+                return 3;
+            case MONTH:
+                return 4;
+            default:
+                return 5;
+        }
+    }
+
+    //细粒度时间点是否完整落在粗粒度时间点内, 周跨月、跨年
+    private static boolean nests(FillBlankTypeEnum finer, FillBlankTypeEnum coarser) {
+        return finer != FillBlankTypeEnum.WEEK || coarser == FillBlankTypeEnum.WEEK;
+    }
+
+    /**
+     * 按最细粒度归入一条数据
+     *
+     * @param epochMillis 数据时间, 纪元毫秒
+     * @param value       数据值
+     * @return 时间落在内部区间外时返回false并忽略
+     */
+    public boolean accept(long epochMillis, double value) {
+        dirty = true;
+        return levels[0].accept(epochMillis, value);
+    }
+
+    public boolean accept(@NotNull Date date, double value) {
+        return accept(date.getTime(), value);
+    }
+
+    /**
+     * 批量归入
+     *
+     * @param epochMillis 数据时间
+     * @param values      数据值, 与时间一一对应
+     * @return 归入的条数
+     */
+    public int acceptAll(@NotNull long[] epochMillis, @NotNull double[] values) {
+        dirty = true;
+        return levels[0].acceptAll(epochMillis, values);
+    }
+
+    /**
+     * 落在内部区间外被忽略的数据条数
+     *
+     * @return
+     */
+    public long getDroppedCount() {
+        return levels[0].getDroppedCount();
+    }
+
+    /**
+     * 某个粒度的汇总结果
+     *
+     * @param resolution 构造时传入的粒度
+     * @return 结果只读使用, 不应再归入数据
+     */
+    public FillBucketAggregator get(@NotNull FillBlankTypeEnum resolution) {
+        FillBucketAggregator result = results.get(resolution);
+        if (result == null) {
+            throw new IllegalArgumentException(resolution + " is not a requested resolution!");
+        }
+        rollup();
+        return result;
+    }
+
+    /**
+     * 全部粒度的汇总结果, 按构造时传入的顺序
+     *
+     * @return
+     */
+    public Map<FillBlankTypeEnum, FillBucketAggregator> getAll() {
+        rollup();
+        return new LinkedHashMap<>(results);
+    }
+
+    private void rollup() {
+        if (!dirty) {
+            return;
+        }
+        for (int i = 1; i < levels.length; i++) {
+            levels[i].reset();
+            levels[i].rollupFrom(levels[parents[i]]);
+        }
+        for (int i = 0; i < levels.length; i++) {
+            FillBucketAggregator result = results.get(levelTypes[i]);
+            result.reset();
+            result.rollupFrom(levels[i]);
+        }
+        dirty = false;
+    }
+}
@@ -1,91 +1,194 @@
 package io.github.cloudintheking.tools.collection;
 
+import io.github.cloudintheking.tools.date.DateFormatUtil;
 import io.github.cloudintheking.tools.date.DateUtil;
+import io.github.cloudintheking.tools.date.EpochDateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.validation.constraints.NotNull;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 //填充空白日期
 public class FillDateBlankUtil {
 
-    private final Logger log = LoggerFactory.getLogger(FillDateBlankUtil.class);
+    private static final Logger log = LoggerFactory.getLogger(FillDateBlankUtil.class);
 
-    //填充基类
+    public static final FillBlankListener NOOP_LISTENER = new FillBlankListener() {
+    };
+
+    private static volatile FillBlankListener listener = NOOP_LISTENER;
+
+    /**
+     * 填充基类
+     * <p>
+     * 不兼容变更: 月/日/时/分打包存放后只能容纳0~255, 超出时setter抛出IllegalArgumentException, 原先任意int均可写入;
+     * 不校验日历合法性, 如13月仍可写入, 按原值参与排序与格式化
+     *
+     * @param <T>
+     */
     public static abstract class FillBlankBase<T> {
-        private int year;
-        private int month;
-        private int day;
-        private int hour;
-        private int minute;
+        //年/月/日/时/分按位打包存放, 布局同packDateKey: 年占高32位, 月、日、时、分各占8位
+        private long dateKey;
 
         public int getYear() {
-            return year;
+            return (int) (dateKey >> 32);
         }
 
         public void setYear(int year) {
-            this.year = year;
+            this.dateKey = ((long) year << 32) | (dateKey & 0xFFFFFFFFL);
         }
 
         public int getMonth() {
-            return month;
+            return (int) (dateKey >> 24 & 0xFF);
         }
 
+        /**
+         * @param month 0~255, 超出时抛出IllegalArgumentException
+         */
         public void setMonth(int month) {
-            this.month = month;
+            this.dateKey = withField(dateKey, 24, month, "month");
         }
 
         public int getDay() {
-            return day;
+            return (int) (dateKey >> 16 & 0xFF);
         }
 
+        /**
+         * @param day 0~255, 超出时抛出IllegalArgumentException
+         */
         public void setDay(int day) {
-            this.day = day;
+            this.dateKey = withField(dateKey, 16, day, "day");
         }
 
         public int getHour() {
-            return hour;
+            return (int) (dateKey >> 8 & 0xFF);
         }
 
+        /**
+         * @param hour 0~255, 超出时抛出IllegalArgumentException
+         */
         public void setHour(int hour) {
-            this.hour = hour;
+            this.dateKey = withField(dateKey, 8, hour, "hour");
         }
 
         public int getMinute() {
-            return minute;
+            return (int) (dateKey & 0xFF);
         }
 
+        /**
+         * @param minute 0~255, 超出时抛出IllegalArgumentException
+         */
         public void setMinute(int minute) {
-            this.minute = minute;
+            this.dateKey = withField(dateKey, 0, minute, "minute");
+        }
+
+        private static long withField(long dateKey, int shift, int value, String name) {
+            if ((value & ~0xFF) != 0) {
+                throw new IllegalArgumentException(name + " out of range: " + value);
+            }
+            return (dateKey & ~(0xFFL << shift)) | ((long) value << shift);
+        }
+
+        /**
+         * 日期键: 年/月/日/时/分按位打包, 数值大小顺序与getDateStr()的字典序一致
+         *
+         * @return
+         */
+        public final long dateKey() {
+            return dateKey;
+        }
+
+        /**
+         * 一次设置年/月/日/时/分, 如由{@link #packDateKey(int, int, int, int, int)}得到的日期键
+         *
+         * @param dateKey 日期键
+         */
+        public final void dateKey(long dateKey) {
+            this.dateKey = dateKey;
         }
 
         public final String getDateStr() {
-            return String.format("%04d-%02d-%02d %02d:%02d", this.year, this.month, this.day, this.hour, this.minute);
+            return DateFormatUtil.formatFields((int) (dateKey >> 32), (int) (dateKey >> 24 & 0xFF), (int) (dateKey >> 16 & 0xFF),
+                    (int) (dateKey >> 8 & 0xFF), (int) (dateKey & 0xFF));
         }
 
+        /**
+         * 泛型实际类型, 沿父类链查找FillBlankBase的类型参数, 无法解析时返回当前类型; 结果按类缓存
+         *
+         * @return
+         */
+        @SuppressWarnings("unchecked")
         public final Class<T> getActualType() {
-            ParameterizedType parameterizedType = (ParameterizedType) this.getClass().getGenericSuperclass();
-            return (Class<T>) parameterizedType.getActualTypeArguments()[0];
+            return (Class<T>) ACTUAL_TYPES.get(this.getClass());
         }
     }
 
+    //FillBlankBase子类 -> 泛型实际类型
+    private static final ClassValue<Class<?>> ACTUAL_TYPES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> type) {
+            for (Class<?> current = type; current != null && current != FillBlankBase.class; current = current.getSuperclass()) {
+                Type superclass = current.getGenericSuperclass();
+                if (superclass instanceof ParameterizedType
+                        && ((ParameterizedType) superclass).getRawType() == FillBlankBase.class) {
+                    Type actualType = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+                    if (actualType instanceof Class) {
+                        return (Class<?>) actualType;
+                    }
+                    if (actualType instanceof ParameterizedType) {
+                        return (Class<?>) ((ParameterizedType) actualType).getRawType();
+                    }
+                    break;
+                }
+            }
+            return type;
+        }
+    };
+
     public enum FillBlankTypeEnum {
-        HOUR(DateUtil.PATTERN_DEFAULT_ON_HOUR, Calendar.HOUR_OF_DAY),   //按时填充
-        DAY(DateUtil.PATTERN_DEFAULT_ON_DAY, Calendar.DAY_OF_MONTH),     //按天填充
-        MONTH(DateUtil.PATTERN_DEFAULT_ON_MONTH, Calendar.MONTH),       //按月填充
-        YEAR(DateUtil.PATTERN_DEFAULT_ON_YEAR, Calendar.YEAR);          //按年填充
+        HOUR(DateUtil.PATTERN_DEFAULT_ON_HOUR, Calendar.HOUR_OF_DAY, 8),   //按时填充
+        DAY(DateUtil.PATTERN_DEFAULT_ON_DAY, Calendar.DAY_OF_MONTH, 16),     //按天填充
+        MONTH(DateUtil.PATTERN_DEFAULT_ON_MONTH, Calendar.MONTH, 24),       //按月填充
+        YEAR(DateUtil.PATTERN_DEFAULT_ON_YEAR, Calendar.YEAR, 32),          //按年填充
+        MINUTE(DateUtil.PATTERN_DEFAULT_ON_MINUTE, Calendar.MINUTE, 0),     //按分填充
+        WEEK(DateUtil.PATTERN_DEFAULT_ON_DAY, Calendar.WEEK_OF_YEAR, 16);   //按周填充,以周一为一周起点
 
 
         private String format;
         private Integer calendarRule;
+        //截断日期键时需要清零的低位数
+        private final int keyShift;
 
 
-        FillBlankTypeEnum(String format, Integer calendarRule) {
+        FillBlankTypeEnum(String format, Integer calendarRule, int keyShift) {
             this.format = format;
             this.calendarRule = calendarRule;
+            this.keyShift = keyShift;
+        }
+
+        /**
+         * 将日期键截断到当前填充粒度
+         *
+         * @param dateKey 日期键
+         * @return
+         */
+        public long truncate(long dateKey) {
+            long truncated = dateKey >> keyShift << keyShift;
+            return this == WEEK ? toMondayKey(truncated) : truncated;
         }
 
         private String getFormat() {
@@ -110,6 +213,50 @@ public class FillDateBlankUtil {
         void fill(FillBlankBase fillBlankBase);
     }
 
+    //填充监听, 用于统计填充比例、时间点个数与耗时; 默认实现为空操作
+    public interface FillBlankListener {
+        /**
+         * 一次填充结束(列表填充返回前, 惰性填充迭代完毕时)
+         *
+         * @param fillBlankType    填充类型
+         * @param originCount      输出的原始元素个数
+         * @param slotCount        遍历的时间点个数
+         * @param synthesizedCount 生成的填充元素个数
+         * @param sortNanos        原始列表排序耗时, 纳秒; 惰性填充为0
+         * @param elapsedNanos     总耗时, 纳秒; 惰性填充从创建迭代器起算, 含调用方消费时间
+         */
+        default void onFill(FillBlankTypeEnum fillBlankType, int originCount, int slotCount, int synthesizedCount, long sortNanos, long elapsedNanos) {
+        }
+    }
+
+    //多序列填充生成函数, 可按序列键补全维度字段
+    @FunctionalInterface
+    public interface FillSeriesGenFunc<K> {
+        void fill(K seriesKey, FillBlankBase fillBlankBase);
+    }
+
+    /**
+     * 设置填充监听, 传null恢复为空操作; 未设置时填充路径不调用System.nanoTime
+     *
+     * @param fillBlankListener
+     */
+    public static void setListener(FillBlankListener fillBlankListener) {
+        listener = fillBlankListener != null ? fillBlankListener : NOOP_LISTENER;
+    }
+
+    public static FillBlankListener getListener() {
+        return listener;
+    }
+
+    //监听异常只记录日志, 不影响填充结果
+    static void fireFill(FillBlankListener fillBlankListener, FillBlankTypeEnum fillBlankType, int originCount, int slotCount, int synthesizedCount, long sortNanos, long elapsedNanos) {
+        try {
+            fillBlankListener.onFill(fillBlankType, originCount, slotCount, synthesizedCount, sortNanos, elapsedNanos);
+        } catch (RuntimeException e) {
+            log.warn("fill blank listener failed", e);
+        }
+    }
+
     /**
      * 空白填充
      *
@@ -120,57 +267,490 @@ public class FillDateBlankUtil {
      * @param fillBlankGenFunc 填充生成函数
      * @return
      */
-    @SuppressWarnings("unchecked")
     public static <T extends FillBlankBase> List fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankGenFunc fillBlankGenFunc) throws IllegalAccessException, InstantiationException {
+        return fillBlank(fillBlankOrigin, fillBlankType, 1, startDate, endDate, fillBlankGenFunc);
+    }
+
+    /**
+     * 按步长空白填充, 如15分钟、3个月一个时间点; 分/时/月/年按步长对齐到上级单位内的整数倍, 天/周以起点为准
+     *
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankGenFunc 填充生成函数
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends FillBlankBase> List fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankGenFunc fillBlankGenFunc) throws IllegalAccessException, InstantiationException {
         if (fillBlankOrigin == null || fillBlankOrigin.size() == 0) {
             throw new IllegalArgumentException("fillBlankOrigin is empty!");
         }
-        if (fillBlankType == null) {
-            throw new IllegalArgumentException("fillBlankType is null!");
+        checkFillArgs(fillBlankType, step, startDate, endDate, fillBlankGenFunc);
+        //填充元素工厂按类缓存,构造器不可用时在填充前抛出
+        Supplier fillBlankFactory = FillBlankFactory.of(fillBlankOrigin.get(0).getActualType());
+        return fillBlank(fillBlankOrigin, fillBlankType, step, startDate, endDate, fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 空白填充, 由填充元素工厂创建填充元素, 原始列表可以为空
+     *
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankFactory 填充元素工厂, 如TestFillBlank::new
+     * @param fillBlankGenFunc 填充生成函数
+     * @return
+     */
+    public static <T extends FillBlankBase> List<T> fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        return fillBlank(fillBlankOrigin, fillBlankType, 1, startDate, endDate, fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 按步长空白填充, 由填充元素工厂创建填充元素, 原始列表可以为空
+     *
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankFactory 填充元素工厂, 如TestFillBlank::new
+     * @param fillBlankGenFunc 填充生成函数
+     * @return
+     */
+    public static <T extends FillBlankBase> List<T> fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        checkFillArgs(fillBlankType, step, startDate, endDate, fillBlankGenFunc);
+        return fillSorted(fillBlankOrigin, fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault(), fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 按本地时间空白填充, 时间点按本地时间算术推进, 不受时区与夏令时影响; 由填充元素工厂创建填充元素, 原始列表可以为空
+     *
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param startTime        填充时间起点
+     * @param endTime          填充时间终点
+     * @param fillBlankFactory 填充元素工厂, 如TestFillBlank::new
+     * @param fillBlankGenFunc 填充生成函数
+     * @return
+     */
+    public static <T extends FillBlankBase> List<T> fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, @NotNull LocalDateTime startTime, @NotNull LocalDateTime endTime, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        return fillBlank(fillBlankOrigin, fillBlankType, 1, startTime, endTime, fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 按本地时间、按步长空白填充, 对齐规则同{@link #fillBlank(List, FillBlankTypeEnum, int, Date, Date, FillBlankGenFunc)}
+     *
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startTime        填充时间起点
+     * @param endTime          填充时间终点
+     * @param fillBlankFactory 填充元素工厂, 如TestFillBlank::new
+     * @param fillBlankGenFunc 填充生成函数
+     * @return
+     */
+    public static <T extends FillBlankBase> List<T> fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull LocalDateTime startTime, @NotNull LocalDateTime endTime, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        checkFillArgs(fillBlankType, step, startTime, endTime, fillBlankGenFunc);
+        return fillSorted(fillBlankOrigin, fillBlankType, step, EpochDateUtil.toLocalMillis(startTime), EpochDateUtil.toLocalMillis(endTime), EpochDateUtil.localZone(), fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 按纪元毫秒与指定时区空白填充, 如Instant按toEpochMilli()传入; 由填充元素工厂创建填充元素, 原始列表可以为空
+     *
+     * @param fillBlankOrigin  待填充原始列表
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startTime        填充时间起点, 纪元毫秒
+     * @param endTime          填充时间终点, 纪元毫秒
+     * @param zone             计算时间点与日期字段所用时区
+     * @param fillBlankFactory 填充元素工厂, 如TestFillBlank::new
+     * @param fillBlankGenFunc 填充生成函数
+     * @return
+     */
+    public static <T extends FillBlankBase> List<T> fillBlank(List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, @NotNull TimeZone zone, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        checkFillArgs(fillBlankType, step, startTime, endTime, fillBlankGenFunc);
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        return fillSorted(fillBlankOrigin, fillBlankType, step, startTime, endTime, zone, fillBlankFactory, fillBlankGenFunc);
+    }
+
+    private static <T extends FillBlankBase> List<T> fillSorted(List<T> fillBlankOrigin, FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, TimeZone zone, Supplier<? extends T> fillBlankFactory, FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankFactory == null) {
+            throw new IllegalArgumentException("fillBlankFactory is null!");
+        }
+        FillBlankListener fillBlankListener = listener;
+        boolean observed = fillBlankListener != NOOP_LISTENER;
+        long startNanos = observed ? System.nanoTime() : 0L;
+        //原始列表按日期键有序(如SQL已ORDER BY)时直接归并,否则按日期键排序一次
+        List<T> sortedOrigin = sortByDateKey(fillBlankOrigin);
+        long sortNanos = observed ? System.nanoTime() - startNanos : 0L;
+        List<T> fillBlankResult = new ArrayList<>(sortedOrigin.size() + 16);
+        FillBlankIterator<T> iterator = new FillBlankIterator<>(sortedOrigin.iterator(), fillBlankType, step, startTime, endTime, zone, fillBlankFactory, fillBlankGenFunc);
+        iterator.detachListener();
+        iterator.forEachRemaining(fillBlankResult::add);
+        if (observed) {
+            fireFill(fillBlankListener, fillBlankType, iterator.getOriginCount(), iterator.getSlotCount(), iterator.getSynthesizedCount(), sortNanos, System.nanoTime() - startNanos);
+        }
+        return fillBlankResult;
+    }
+
+    /**
+     * 惰性空白填充, 原始数据源须按日期键升序(见{@link #sortByDateKey(List)}),逆序时抛出IllegalStateException
+     *
+     * @param fillBlankOrigin  待填充原始数据源
+     * @param fillBlankType    填充类型
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 按需生成填充元素的迭代器
+     */
+    public static <T extends FillBlankBase> Iterator<T> fillBlankIterator(Iterator<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        return fillBlankIterator(fillBlankOrigin, fillBlankType, 1, startDate, endDate, fillBlankGenFunc);
+    }
+
+    /**
+     * 按步长惰性空白填充, 原始数据源须按日期键升序
+     *
+     * @param fillBlankOrigin  待填充原始数据源
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 按需生成填充元素的迭代器
+     */
+    public static <T extends FillBlankBase> Iterator<T> fillBlankIterator(Iterator<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        checkFillArgs(fillBlankType, step, startDate, endDate, fillBlankGenFunc);
+        return new FillBlankIterator<>(fillBlankOrigin, fillBlankType, step, startDate, endDate, null, fillBlankGenFunc);
+    }
+
+    /**
+     * 按步长惰性空白填充, 由填充元素工厂创建填充元素, 原始数据源须按日期键升序, 可以为空
+     *
+     * @param fillBlankOrigin  待填充原始数据源
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 按需生成填充元素的迭代器
+     */
+    public static <T extends FillBlankBase> Iterator<T> fillBlankIterator(Iterator<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        checkFillArgs(fillBlankType, step, startDate, endDate, fillBlankGenFunc);
+        if (fillBlankFactory == null) {
+            throw new IllegalArgumentException("fillBlankFactory is null!");
+        }
+        return new FillBlankIterator<>(fillBlankOrigin, fillBlankType, step, startDate, endDate, fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 按本地时间、按步长惰性空白填充, 由填充元素工厂创建填充元素, 原始数据源须按日期键升序, 可以为空
+     *
+     * @param fillBlankOrigin  待填充原始数据源
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startTime        填充时间起点
+     * @param endTime          填充时间终点
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 按需生成填充元素的迭代器
+     */
+    public static <T extends FillBlankBase> Iterator<T> fillBlankIterator(Iterator<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull LocalDateTime startTime, @NotNull LocalDateTime endTime, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        checkFillArgs(fillBlankType, step, startTime, endTime, fillBlankGenFunc);
+        if (fillBlankFactory == null) {
+            throw new IllegalArgumentException("fillBlankFactory is null!");
+        }
+        return new FillBlankIterator<>(fillBlankOrigin, fillBlankType, step, EpochDateUtil.toLocalMillis(startTime), EpochDateUtil.toLocalMillis(endTime), EpochDateUtil.localZone(), fillBlankFactory, fillBlankGenFunc);
+    }
+
+    /**
+     * 惰性空白填充, 原始数据流须按日期键升序
+     *
+     * @param fillBlankOrigin  待填充原始数据流
+     * @param fillBlankType    填充类型
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 顺序流, 关闭时同时关闭原始数据流
+     */
+    public static <T extends FillBlankBase> Stream<T> fillBlankStream(Stream<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        return fillBlankStream(fillBlankOrigin, fillBlankType, 1, startDate, endDate, fillBlankGenFunc);
+    }
+
+    /**
+     * 按步长惰性空白填充, 原始数据流须按日期键升序
+     *
+     * @param fillBlankOrigin  待填充原始数据流
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 顺序流, 关闭时同时关闭原始数据流
+     */
+    public static <T extends FillBlankBase> Stream<T> fillBlankStream(Stream<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is empty!");
+        }
+        Iterator<T> iterator = fillBlankIterator(fillBlankOrigin.iterator(), fillBlankType, step, startDate, endDate, fillBlankGenFunc);
+        return toStream(iterator, fillBlankOrigin);
+    }
+
+    /**
+     * 按步长惰性空白填充, 由填充元素工厂创建填充元素, 原始数据流须按日期键升序, 可以为空
+     *
+     * @param fillBlankOrigin  待填充原始数据流
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startDate        填充时间起点
+     * @param endDate          填充时间终点
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 顺序流, 关闭时同时关闭原始数据流
+     */
+    public static <T extends FillBlankBase> Stream<T> fillBlankStream(Stream<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
         }
+        Iterator<T> iterator = fillBlankIterator(fillBlankOrigin.iterator(), fillBlankType, step, startDate, endDate, fillBlankFactory, fillBlankGenFunc);
+        return toStream(iterator, fillBlankOrigin);
+    }
+
+    /**
+     * 按本地时间、按步长惰性空白填充, 由填充元素工厂创建填充元素, 原始数据流须按日期键升序, 可以为空
+     *
+     * @param fillBlankOrigin  待填充原始数据流
+     * @param fillBlankType    填充类型
+     * @param step             步长,填充类型单位的整数倍
+     * @param startTime        填充时间起点
+     * @param endTime          填充时间终点
+     * @param fillBlankFactory 填充元素工厂
+     * @param fillBlankGenFunc 填充生成函数
+     * @return 顺序流, 关闭时同时关闭原始数据流
+     */
+    public static <T extends FillBlankBase> Stream<T> fillBlankStream(Stream<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull LocalDateTime startTime, @NotNull LocalDateTime endTime, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        Iterator<T> iterator = fillBlankIterator(fillBlankOrigin.iterator(), fillBlankType, step, startTime, endTime, fillBlankFactory, fillBlankGenFunc);
+        return toStream(iterator, fillBlankOrigin);
+    }
+
+    private static <T> Stream<T> toStream(Iterator<T> iterator, Stream<T> fillBlankOrigin) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(fillBlankOrigin::close);
+    }
+
+    private static void checkFillArgs(FillBlankTypeEnum fillBlankType, int step, Date startDate, Date endDate, FillBlankGenFunc fillBlankGenFunc) {
+        checkSlotArgs(fillBlankType, step, startDate, endDate);
+        checkGenFunc(fillBlankGenFunc);
+    }
+
+    private static void checkFillArgs(FillBlankTypeEnum fillBlankType, int step, LocalDateTime startTime, LocalDateTime endTime, FillBlankGenFunc fillBlankGenFunc) {
+        checkSlotArgs(fillBlankType, step, startTime, endTime);
+        checkGenFunc(fillBlankGenFunc);
+    }
+
+    private static void checkFillArgs(FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, FillBlankGenFunc fillBlankGenFunc) {
+        checkSlotArgs(fillBlankType, step, startTime, endTime);
+        checkGenFunc(fillBlankGenFunc);
+    }
+
+    private static void checkGenFunc(FillBlankGenFunc fillBlankGenFunc) {
+        if (fillBlankGenFunc == null) {
+            throw new IllegalArgumentException("fillBlankGenFunc is null!");
+        }
+    }
+
+    static void checkSlotArgs(FillBlankTypeEnum fillBlankType, int step, Date startDate, Date endDate) {
+        checkSlotType(fillBlankType, step);
         if (startDate == null || endDate == null) {
             throw new IllegalArgumentException("startDate or endDate is null!");
         }
-        if (startDate.after(endDate)) {
+        checkSlotRange(startDate.getTime(), endDate.getTime());
+    }
+
+    static void checkSlotArgs(FillBlankTypeEnum fillBlankType, int step, LocalDateTime startTime, LocalDateTime endTime) {
+        checkSlotType(fillBlankType, step);
+        if (startTime == null || endTime == null) {
+            throw new IllegalArgumentException("startDate or endDate is null!");
+        }
+        if (startTime.isAfter(endTime)) {
             throw new IllegalArgumentException("startDate should be before endDate!");
         }
-        if (fillBlankGenFunc == null) {
-            throw new IllegalArgumentException("fillBlankGenFunc is null!");
+    }
+
+    static void checkSlotArgs(FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime) {
+        checkSlotType(fillBlankType, step);
+        checkSlotRange(startTime, endTime);
+    }
+
+    private static void checkSlotType(FillBlankTypeEnum fillBlankType, int step) {
+        if (fillBlankType == null) {
+            throw new IllegalArgumentException("fillBlankType is null!");
+        }
+        if (step < 1) {
+            throw new IllegalArgumentException("step should be positive!");
+        }
+    }
+
+    private static void checkSlotRange(long startTime, long endTime) {
+        if (startTime > endTime) {
+            throw new IllegalArgumentException("startDate should be before endDate!");
         }
+    }
 
-        Class elementClass = fillBlankOrigin.get(0).getActualType();
-        //根据填充类型、填充起始时间获取完整时间点列表
-        List<Date> dates = findDates(startDate, endDate, fillBlankType);
-        //遍历完整时间列表
-        for (Date date : dates) {
-            String dateStr = DateUtil.format(date, fillBlankType.getFormat());
-            //  遍历待填充原始列表
-            if (!fillBlankOrigin.stream().anyMatch(fillBlankBase -> {
-                Calendar calendar = Calendar.getInstance();
-                calendar.set(fillBlankBase.getYear(), fillBlankBase.getMonth() - 1, fillBlankBase.getDay(), fillBlankBase.getHour(), fillBlankBase.getMinute());
-                Date originDate = calendar.getTime();
-                return dateStr.equals(DateUtil.format(originDate, fillBlankType.getFormat()));
-            })) {
-                // 若不存在完整时间列表中,则调用填充生成函数生成填充数据,插入到待填充原始列表
-                FillBlankBase fillBlankBase = (FillBlankBase) elementClass.newInstance();
-                Calendar calendar = Calendar.getInstance();
-                calendar.setTime(date);
-                fillBlankBase.setYear(calendar.get(Calendar.YEAR));
-                fillBlankBase.setMonth(calendar.get(Calendar.MONTH) + 1);
-                fillBlankBase.setDay(calendar.get(Calendar.DAY_OF_MONTH));
-                fillBlankBase.setHour(calendar.get(Calendar.HOUR_OF_DAY));
-                //调用填充生成方法
-                fillBlankGenFunc.fill(fillBlankBase);
-                fillBlankOrigin.add((T) fillBlankBase);
+    /**
+     * 多序列并行空白填充: 按序列键分组后,每个序列在执行器上独立填充
+     *
+     * @param fillBlankOrigin   带序列键的原始数据
+     * @param seriesKeyFunc     序列键提取函数, 如设备/租户
+     * @param fillBlankType     填充类型
+     * @param step              步长,填充类型单位的整数倍
+     * @param startDate         填充时间起点
+     * @param endDate           填充时间终点
+     * @param fillBlankFactory  填充元素工厂
+     * @param fillSeriesGenFunc 填充生成函数
+     * @param executor          执行器, 为空时使用ForkJoinPool公共池
+     * @return 序列键 -> 填充结果, 序列键按首次出现顺序排列
+     */
+    public static <K, T extends FillBlankBase> Map<K, List<T>> fillBlankBySeries(Collection<T> fillBlankOrigin, @NotNull Function<? super T, ? extends K> seriesKeyFunc, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillSeriesGenFunc<? super K> fillSeriesGenFunc, Executor executor) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        if (seriesKeyFunc == null) {
+            throw new IllegalArgumentException("seriesKeyFunc is null!");
+        }
+        Map<K, List<T>> seriesOrigin = new LinkedHashMap<>();
+        for (T origin : fillBlankOrigin) {
+            seriesOrigin.computeIfAbsent(seriesKeyFunc.apply(origin), k -> new ArrayList<>()).add(origin);
+        }
+        return fillBlankBySeries(seriesOrigin, fillBlankType, step, startDate, endDate, fillBlankFactory, fillSeriesGenFunc, executor);
+    }
+
+    /**
+     * 多序列并行空白填充, 原始数据已按序列分组
+     *
+     * @param seriesOrigin      序列键 -> 原始列表
+     * @param fillBlankType     填充类型
+     * @param step              步长,填充类型单位的整数倍
+     * @param startDate         填充时间起点
+     * @param endDate           填充时间终点
+     * @param fillBlankFactory  填充元素工厂
+     * @param fillSeriesGenFunc 填充生成函数
+     * @param executor          执行器, 为空时使用ForkJoinPool公共池
+     * @return 序列键 -> 填充结果, 顺序与seriesOrigin一致
+     */
+    public static <K, T extends FillBlankBase> Map<K, List<T>> fillBlankBySeries(Map<K, ? extends List<T>> seriesOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate, @NotNull Supplier<? extends T> fillBlankFactory, @NotNull FillSeriesGenFunc<? super K> fillSeriesGenFunc, Executor executor) {
+        if (seriesOrigin == null) {
+            throw new IllegalArgumentException("seriesOrigin is null!");
+        }
+        if (fillSeriesGenFunc == null) {
+            throw new IllegalArgumentException("fillSeriesGenFunc is null!");
+        }
+        Executor seriesExecutor = executor != null ? executor : ForkJoinPool.commonPool();
+        Map<K, CompletableFuture<List<T>>> futures = new LinkedHashMap<>(seriesOrigin.size() * 4 / 3 + 1);
+        for (Map.Entry<K, ? extends List<T>> entry : seriesOrigin.entrySet()) {
+            K seriesKey = entry.getKey();
+            List<T> origin = entry.getValue();
+            FillBlankGenFunc fillBlankGenFunc = fillBlankBase -> fillSeriesGenFunc.fill(seriesKey, fillBlankBase);
+            futures.put(seriesKey, CompletableFuture.supplyAsync(() -> fillBlank(origin, fillBlankType, step, startDate, endDate, fillBlankFactory, fillBlankGenFunc), seriesExecutor));
+        }
+        Map<K, List<T>> fillBlankResult = new LinkedHashMap<>(futures.size() * 4 / 3 + 1);
+        try {
+            for (Map.Entry<K, CompletableFuture<List<T>>> entry : futures.entrySet()) {
+                fillBlankResult.put(entry.getKey(), entry.getValue().join());
+            }
+        } catch (CompletionException e) {
+            futures.values().forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw e;
+        }
+        return fillBlankResult;
+    }
+
+    /**
+     * 按日期键升序排列, 已有序时直接返回原列表
+     *
+     * @param fillBlankOrigin 原始列表
+     * @return
+     */
+    public static <T extends FillBlankBase> List<T> sortByDateKey(List<T> fillBlankOrigin) {
+        long previousKey = Long.MIN_VALUE;
+        for (T origin : fillBlankOrigin) {
+            long dateKey = origin.dateKey();
+            if (dateKey < previousKey) {
+                List<T> sorted = new ArrayList<>(fillBlankOrigin);
+                //稳定排序,日期键相同的元素保持原有顺序
+                sorted.sort(Comparator.comparingLong(FillBlankBase::dateKey));
+                return sorted;
+            }
+            previousKey = dateKey;
         }
-        //重新排序
-        fillBlankOrigin = fillBlankOrigin.stream()
-                .sorted(Comparator.comparing(FillBlankBase::getDateStr))
-                .collect(Collectors.toList());
         return fillBlankOrigin;
     }
 
+    /**
+     * 打包日期键, 各字段按位存放, 年份占高32位
+     *
+     * @param year
+     * @param month
+     * @param day
+     * @param hour
+     * @param minute
+     * @return
+     */
+    public static long packDateKey(int year, int month, int day, int hour, int minute) {
+        return ((long) year << 32) | ((month & 0xFFL) << 24) | ((day & 0xFFL) << 16) | ((hour & 0xFFL) << 8) | (minute & 0xFFL);
+    }
+
+    /**
+     * 按时间点的日期字段(布局同packDateKey)写入元素, 非分钟填充不写入分钟; 各处生成的填充元素均经此写入日期
+     *
+     * @param fillBlankBase 元素
+     * @param fillBlankType 填充类型
+     * @param slotFields    时间点的年/月/日/时/分
+     */
+    static void setSlotFields(FillBlankBase fillBlankBase, FillBlankTypeEnum fillBlankType, long slotFields) {
+        fillBlankBase.setYear((int) (slotFields >> 32));
+        fillBlankBase.setMonth((int) (slotFields >> 24 & 0xFF));
+        fillBlankBase.setDay((int) (slotFields >> 16 & 0xFF));
+        fillBlankBase.setHour((int) (slotFields >> 8 & 0xFF));
+        if (fillBlankType == FillBlankTypeEnum.MINUTE) {
+            fillBlankBase.setMinute((int) (slotFields & 0xFF));
+        }
+    }
+
+    /**
+     * 日期键截断到所在周的周一
+     *
+     * @param dateKey 已截断到天的日期键
+     * @return
+     */
+    static long toMondayKey(long dateKey) {
+        int year = (int) (dateKey >> 32);
+        int month = (int) (dateKey >> 24 & 0xFF);
+        int day = (int) (dateKey >> 16 & 0xFF);
+        long epochDay = EpochDateUtil.toEpochDay(year, month, day);
+        int ymd = EpochDateUtil.epochDayToYmd(epochDay - EpochDateUtil.isoDayOfWeekIndex(epochDay));
+        return packDateKey(ymd / 10000, ymd / 100 % 100, ymd % 100, 0, 0);
+    }
 
     /**
      * 获取时间段内时间点列表
@@ -197,4 +777,147 @@ public class FillDateBlankUtil {
         }
         return lDate;
     }
+
+    /**
+     * 按步长获取时间段内时间点列表, 对齐规则同{@link #fillBlank(List, FillBlankTypeEnum, int, Date, Date, FillBlankGenFunc)}
+     *
+     * @param startDate
+     * @param endDate
+     * @param fillBlankType
+     * @param step
+     * @return
+     */
+    public static List<Date> findDates(@NotNull Date startDate, @NotNull Date endDate, @NotNull FillBlankTypeEnum fillBlankType, int step) {
+        List<Date> lDate = new ArrayList<Date>();
+        FillSlotCursor cursor = new FillSlotCursor(fillBlankType, step, startDate, endDate);
+        do {
+            lDate.add(new Date(cursor.getTime()));
+        } while (cursor.advance());
+        return lDate;
+    }
+
+    /**
+     * 按本地时间、按步长获取时间段内时间点列表, 时间点按本地时间算术推进, 不受时区与夏令时影响
+     *
+     * @param startTime
+     * @param endTime
+     * @param fillBlankType
+     * @param step
+     * @return
+     */
+    public static List<LocalDateTime> findDates(@NotNull LocalDateTime startTime, @NotNull LocalDateTime endTime, @NotNull FillBlankTypeEnum fillBlankType, int step) {
+        checkSlotArgs(fillBlankType, step, startTime, endTime);
+        long[] times = findTimes(EpochDateUtil.toLocalMillis(startTime), EpochDateUtil.toLocalMillis(endTime), EpochDateUtil.localZone(), fillBlankType, step);
+        List<LocalDateTime> lDate = new ArrayList<>(times.length);
+        for (long time : times) {
+            lDate.add(EpochDateUtil.toLocalDateTime(time));
+        }
+        return lDate;
+    }
+
+    /**
+     * 按指定时区、按步长获取时间段内时间点列表
+     *
+     * @param startTime
+     * @param endTime
+     * @param zone          计算时间点所用时区
+     * @param fillBlankType
+     * @param step
+     * @return
+     */
+    public static List<Instant> findDates(@NotNull Instant startTime, @NotNull Instant endTime, @NotNull ZoneId zone, @NotNull FillBlankTypeEnum fillBlankType, int step) {
+        if (startTime == null || endTime == null) {
+            throw new IllegalArgumentException("startDate or endDate is null!");
+        }
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        long[] times = findTimes(startTime.toEpochMilli(), endTime.toEpochMilli(), TimeZone.getTimeZone(zone), fillBlankType, step);
+        List<Instant> lDate = new ArrayList<>(times.length);
+        for (long time : times) {
+            lDate.add(Instant.ofEpochMilli(time));
+        }
+        return lDate;
+    }
+
+    /**
+     * 按指定时区、按步长获取时间段内时间点, 纪元毫秒, 不创建日期对象
+     *
+     * @param startTime     填充时间起点, 纪元毫秒
+     * @param endTime       填充时间终点, 纪元毫秒
+     * @param zone          计算时间点所用时区
+     * @param fillBlankType
+     * @param step
+     * @return
+     */
+    public static long[] findTimes(long startTime, long endTime, @NotNull TimeZone zone, @NotNull FillBlankTypeEnum fillBlankType, int step) {
+        checkSlotArgs(fillBlankType, step, startTime, endTime);
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        long[] times = new long[16];
+        int count = 0;
+        FillSlotCursor cursor = new FillSlotCursor(fillBlankType, step, startTime, endTime, zone);
+        do {
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+            }
+            times[count++] = cursor.getTime();
+        } while (cursor.advance());
+        return Arrays.copyOf(times, count);
+    }
+
+    /**
+     * 缺失时间点检查, 只扫描不填充; 原始列表无序时先按日期键排序一次
+     *
+     * @param fillBlankOrigin 原始列表
+     * @param fillBlankType   填充类型
+     * @param step            步长,填充类型单位的整数倍
+     * @param startDate       时间起点
+     * @param endDate         时间终点
+     * @return 缺失段与覆盖率
+     */
+    public static <T extends FillBlankBase> FillGapReport findGaps(@NotNull List<T> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate) {
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        return findGaps(sortByDateKey(fillBlankOrigin).iterator(), fillBlankType, step, startDate, endDate);
+    }
+
+    /**
+     * 缺失时间点检查, 原始数据源须按日期键升序, 逆序时抛出IllegalStateException
+     *
+     * @param fillBlankOrigin 原始数据源
+     * @param fillBlankType   填充类型
+     * @param step            步长,填充类型单位的整数倍
+     * @param startDate       时间起点
+     * @param endDate         时间终点
+     * @return 缺失段与覆盖率
+     */
+    public static FillGapReport findGaps(@NotNull Iterator<? extends FillBlankBase> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate) {
+        checkSlotArgs(fillBlankType, step, startDate, endDate);
+        return findGaps(fillBlankOrigin, fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault());
+    }
+
+    /**
+     * 按指定时区的缺失时间点检查, 原始数据源须按日期键升序
+     *
+     * @param fillBlankOrigin 原始数据源
+     * @param fillBlankType   填充类型
+     * @param step            步长,填充类型单位的整数倍
+     * @param startTime       时间起点, 纪元毫秒
+     * @param endTime         时间终点, 纪元毫秒
+     * @param zone            计算时间点所用时区
+     * @return 缺失段与覆盖率
+     */
+    public static FillGapReport findGaps(@NotNull Iterator<? extends FillBlankBase> fillBlankOrigin, @NotNull FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, @NotNull TimeZone zone) {
+        checkSlotArgs(fillBlankType, step, startTime, endTime);
+        if (fillBlankOrigin == null) {
+            throw new IllegalArgumentException("fillBlankOrigin is null!");
+        }
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        return new FillGapReport(fillBlankOrigin, new FillSlotCursor(fillBlankType, step, startTime, endTime, zone), zone);
+    }
 }
@@ -0,0 +1,247 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.TimeZone;
+
+/**
+ * 缺失时间点报告: 一次线性扫描有序原始数据与时间点, 不创建填充元素; 连续缺失的时间点合并为一段(起始时间点, 个数),
+ * 只为每段而非每个缺失时间点分配空间. 缺失的判定与fillBlank一致, 即fillBlank会为其生成填充元素的时间点
+ */
+public class FillGapReport {
+
+    private final FillBlankTypeEnum fillBlankType;
+    private final TimeZone zone;
+    private int slotCount;
+    private int missingCount;
+    private int originCount;
+    private int outOfRangeCount;
+    private int longestRun;
+
+    //各段按时间顺序存放, 起始序号与个数打包为 起始序号 << 32 | 个数
+    private int runCount;
+    private long[] runs = new long[8];
+    private long[] runStartTimes = new long[8];
+
+    /**
+     * @param source 按日期键升序的原始数据, 逆序时抛出IllegalStateException
+     * @param cursor 时间点游标
+     * @param zone   游标计算时间点所用时区
+     */
+    FillGapReport(Iterator<? extends FillBlankBase> source, FillSlotCursor cursor, TimeZone zone) {
+        this.fillBlankType = cursor.getFillBlankType();
+        this.zone = zone;
+        long previousKey = Long.MIN_VALUE;
+        long pendingKey = Long.MAX_VALUE;
+        if (source.hasNext()) {
+            previousKey = source.next().dateKey();
+            pendingKey = fillBlankType.truncate(previousKey);
+        }
+        boolean inRun = false;
+        while (cursor.hasSlot()) {
+            long slotKey = cursor.getSlotKey();
+            long nextSlotKey = cursor.getNextSlotKey();
+            //早于当前时间点区间的原始数据不覆盖任何时间点
+            boolean covered = false;
+            while (pendingKey < nextSlotKey) {
+                if (pendingKey < slotKey) {
+                    outOfRangeCount++;
+                } else {
+                    originCount++;
+                    covered = true;
+                }
+                if (!source.hasNext()) {
+                    pendingKey = Long.MAX_VALUE;
+                    break;
+                }
+                previousKey = nextKey(source, previousKey);
+                pendingKey = fillBlankType.truncate(previousKey);
+            }
+            if (covered) {
+                inRun = false;
+            } else {
+                missingCount++;
+                if (!inRun) {
+                    openRun(slotCount, cursor.getTime());
+                    inRun = true;
+                }
+                int run = runCount - 1;
+                runs[run]++;
+                longestRun = Math.max(longestRun, (int) runs[run]);
+            }
+            slotCount++;
+            cursor.advance();
+        }
+        //晚于末尾时间点区间的原始数据
+        if (pendingKey != Long.MAX_VALUE) {
+            outOfRangeCount++;
+            while (source.hasNext()) {
+                previousKey = nextKey(source, previousKey);
+                outOfRangeCount++;
+            }
+        }
+    }
+
+    private static long nextKey(Iterator<? extends FillBlankBase> source, long previousKey) {
+        FillBlankBase origin = source.next();
+        long dateKey = origin.dateKey();
+        if (dateKey < previousKey) {
+            throw new IllegalStateException("fillBlankOrigin is not sorted by date: " + origin.getDateStr());
+        }
+        return dateKey;
+    }
+
+    private void openRun(int startIndex, long startTime) {
+        if (runCount == runs.length) {
+            runs = Arrays.copyOf(runs, runCount * 2);
+            runStartTimes = Arrays.copyOf(runStartTimes, runCount * 2);
+        }
+        runs[runCount] = (long) startIndex << 32;
+        runStartTimes[runCount] = startTime;
+        runCount++;
+    }
+
+    public FillBlankTypeEnum getFillBlankType() {
+        return fillBlankType;
+    }
+
+    /**
+     * 时间点总数
+     *
+     * @return
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * 缺失的时间点个数
+     *
+     * @return
+     */
+    public int getMissingCount() {
+        return missingCount;
+    }
+
+    /**
+     * 有数据的时间点个数
+     *
+     * @return
+     */
+    public int getCoveredCount() {
+        return slotCount - missingCount;
+    }
+
+    /**
+     * 覆盖率: 有数据的时间点个数 / 时间点总数
+     *
+     * @return
+     */
+    public double getCoverage() {
+        return slotCount == 0 ? 0D : (double) (slotCount - missingCount) / slotCount;
+    }
+
+    public boolean isComplete() {
+        return missingCount == 0;
+    }
+
+    /**
+     * 落在时间点区间内的原始数据条数
+     *
+     * @return
+     */
+    public int getOriginCount() {
+        return originCount;
+    }
+
+    /**
+     * 不落在任何时间点区间内的原始数据条数, 如早于起点或晚于终点
+     *
+     * @return
+     */
+    public int getOutOfRangeCount() {
+        return outOfRangeCount;
+    }
+
+    /**
+     * 连续缺失的段数
+     *
+     * @return
+     */
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * 最长一段连续缺失的时间点个数
+     *
+     * @return
+     */
+    public int getLongestRun() {
+        return longestRun;
+    }
+
+    /**
+     * 第run段首个缺失时间点的序号, 与findDates结果的下标一致
+     *
+     * @param run 段序号
+     * @return
+     */
+    public int getRunStartIndex(int run) {
+        checkRun(run);
+        return (int) (runs[run] >>> 32);
+    }
+
+    /**
+     * 第run段的缺失时间点个数
+     *
+     * @param run 段序号
+     * @return
+     */
+    public int getRunLength(int run) {
+        checkRun(run);
+        return (int) runs[run];
+    }
+
+    /**
+     * 第run段首个缺失时间点, 纪元毫秒
+     *
+     * @param run 段序号
+     * @return
+     */
+    public long getRunStartTime(int run) {
+        checkRun(run);
+        return runStartTimes[run];
+    }
+
+    public Date getRunStartDate(int run) {
+        return new Date(getRunStartTime(run));
+    }
+
+    /**
+     * 第run段首个缺失时间点的桶键, 与原始数据日期键按填充类型截断后可比较
+     *
+     * @param run 段序号
+     * @return
+     */
+    public long getRunStartKey(int run) {
+        return fillBlankType.truncate(FillSlots.dateKeyOf(getRunStartTime(run), zone));
+    }
+
+    private void checkRun(int run) {
+        if (run < 0 || run >= runCount) {
+            throw new IndexOutOfBoundsException("run: " + run + ", runCount: " + runCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FillGapReport{fillBlankType=" + fillBlankType + ", slotCount=" + slotCount + ", missingCount=" + missingCount
+                + ", coverage=" + getCoverage() + ", runCount=" + runCount + ", longestRun=" + longestRun
+                + ", originCount=" + originCount + ", outOfRangeCount=" + outOfRangeCount + '}';
+    }
+}
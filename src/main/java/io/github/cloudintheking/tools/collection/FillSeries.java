@@ -0,0 +1,314 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import javax.validation.constraints.NotNull;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 列式时间序列: 填充区间内每个时间点占各数值列的一个下标, 以long[]/double[]列保存数值, 以位图标记填充生成的时间点,
+ * 时间点与{@link FillDateBlankUtil#fillBlank(List, FillBlankTypeEnum, int, Date, Date, FillDateBlankUtil.FillBlankGenFunc)}一致;
+ * 长区间填充时代替List<FillBlankBase>, 每个时间点只占各列一个原始类型元素, 非线程安全
+ */
+public class FillSeries {
+
+    //序列化格式标识与版本
+    private static final int MAGIC = 0x46534552;
+    private static final int VERSION = 1;
+
+    private final FillSlots slots;
+    //填充生成(无原始数据)的时间点
+    private final BitSet synthesized;
+    private final Map<String, long[]> longColumns = new LinkedHashMap<>();
+    private final Map<String, double[]> doubleColumns = new LinkedHashMap<>();
+
+    /**
+     * @param fillBlankType 填充类型
+     * @param startDate     填充时间起点
+     * @param endDate       填充时间终点
+     */
+    public FillSeries(@NotNull FillBlankTypeEnum fillBlankType, @NotNull Date startDate, @NotNull Date endDate) {
+        this(fillBlankType, 1, startDate, endDate);
+    }
+
+    /**
+     * 创建全部时间点均为填充生成、尚无数值列的序列
+     *
+     * @param fillBlankType 填充类型
+     * @param step          步长,填充类型单位的整数倍
+     * @param startDate     填充时间起点
+     * @param endDate       填充时间终点
+     */
+    public FillSeries(@NotNull FillBlankTypeEnum fillBlankType, int step, @NotNull Date startDate, @NotNull Date endDate) {
+        FillDateBlankUtil.checkSlotArgs(fillBlankType, step, startDate, endDate);
+        this.slots = FillSlots.of(fillBlankType, step, startDate, endDate);
+        this.synthesized = new BitSet(slots.size);
+        this.synthesized.set(0, slots.size);
+    }
+
+    FillSeries(FillSlots slots, BitSet synthesized) {
+        this.slots = slots;
+        this.synthesized = synthesized;
+    }
+
+    public int size() {
+        return slots.size;
+    }
+
+    public FillBlankTypeEnum getFillBlankType() {
+        return slots.fillBlankType;
+    }
+
+    public int getStep() {
+        return slots.step;
+    }
+
+    /**
+     * 首个时间点, 纪元毫秒
+     *
+     * @return
+     */
+    public long getStartTime() {
+        return slots.times[0];
+    }
+
+    /**
+     * 时间点的时间, 纪元毫秒; 月、年等单位长度不固定, 按下标取值而非起点加步长推算
+     *
+     * @param index 时间点下标
+     * @return
+     */
+    public long getTime(int index) {
+        return slots.times[index];
+    }
+
+    /**
+     * @return 各时间点时间的副本
+     */
+    public long[] getTimes() {
+        return slots.times.clone();
+    }
+
+    /**
+     * 时间点是否为填充生成
+     *
+     * @param index 时间点下标
+     * @return
+     */
+    public boolean isSynthesized(int index) {
+        return synthesized.get(index);
+    }
+
+    /**
+     * @return 填充生成时间点位图的副本
+     */
+    public BitSet getSynthesized() {
+        return (BitSet) synthesized.clone();
+    }
+
+    /**
+     * 新增long列, 返回的数组即列存储, 可直接按时间点下标读写
+     *
+     * @param name         列名
+     * @param defaultValue 初始值
+     * @return
+     */
+    public long[] addLongColumn(@NotNull String name, long defaultValue) {
+        checkColumnName(name);
+        long[] column = new long[slots.size];
+        Arrays.fill(column, defaultValue);
+        longColumns.put(name, column);
+        return column;
+    }
+
+    /**
+     * 新增double列, 返回的数组即列存储, 可直接按时间点下标读写
+     *
+     * @param name         列名
+     * @param defaultValue 初始值
+     * @return
+     */
+    public double[] addDoubleColumn(@NotNull String name, double defaultValue) {
+        checkColumnName(name);
+        double[] column = new double[slots.size];
+        Arrays.fill(column, defaultValue);
+        doubleColumns.put(name, column);
+        return column;
+    }
+
+    /**
+     * @param name 列名
+     * @return 列存储, 不存在时返回null
+     */
+    public long[] getLongColumn(String name) {
+        return longColumns.get(name);
+    }
+
+    /**
+     * @param name 列名
+     * @return 列存储, 不存在时返回null
+     */
+    public double[] getDoubleColumn(String name) {
+        return doubleColumns.get(name);
+    }
+
+    public Set<String> getLongColumnNames() {
+        return Collections.unmodifiableSet(longColumns.keySet());
+    }
+
+    public Set<String> getDoubleColumnNames() {
+        return Collections.unmodifiableSet(doubleColumns.keySet());
+    }
+
+    private void checkColumnName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("column name is null!");
+        }
+        if (longColumns.containsKey(name) || doubleColumns.containsKey(name)) {
+            throw new IllegalArgumentException("column " + name + " already exists!");
+        }
+    }
+
+    /**
+     * 写入原始数据: 按日期键定位时间点并取消其填充标记, 由写入函数把元素字段写入对应列, 如
+     * (row, index) -> sum[index] = row.getSum(); 落在填充区间外的元素忽略
+     *
+     * @param fillBlankOrigin 原始数据, 无需有序
+     * @param columnWriter    写入函数, 参数为元素与时间点下标
+     * @return 写入的元素个数
+     */
+    public <T extends FillBlankBase> int putAll(@NotNull Iterable<? extends T> fillBlankOrigin, @NotNull ObjIntConsumer<? super T> columnWriter) {
+        int count = 0;
+        int index = 0;
+        for (T origin : fillBlankOrigin) {
+            int found = slots.indexOf(origin.dateKey(), index);
+            if (found < 0) {
+                continue;
+            }
+            index = found;
+            synthesized.clear(index);
+            columnWriter.accept(origin, index);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 转换为填充列表, 每个时间点一个元素, 日期字段与fillBlank生成的填充元素一致
+     *
+     * @param fillBlankFactory 元素工厂, 如TestFillBlank::new
+     * @param columnReader     读取函数, 参数为元素与时间点下标, 如 (row, index) -> row.setSum((int) sum[index])
+     * @return
+     */
+    public <T extends FillBlankBase> List<T> toList(@NotNull Supplier<? extends T> fillBlankFactory, @NotNull ObjIntConsumer<? super T> columnReader) {
+        List<T> fillBlankResult = new ArrayList<>(slots.size);
+        for (int i = 0; i < slots.size; i++) {
+            T fillBlankBase = fillBlankFactory.get();
+            slots.setDateFields(fillBlankBase, i);
+            columnReader.accept(fillBlankBase, i);
+            fillBlankResult.add(fillBlankBase);
+        }
+        return fillBlankResult;
+    }
+
+    /**
+     * 按二进制格式写出, 时间点按已展开的时间保存, 读取时不依赖当前时区
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(@NotNull DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(slots.fillBlankType.name());
+        out.writeInt(slots.step);
+        out.writeInt(slots.size);
+        writeLongs(out, slots.keys);
+        writeLongs(out, slots.times);
+        writeLongs(out, slots.fields);
+        long[] mask = synthesized.toLongArray();
+        out.writeInt(mask.length);
+        writeLongs(out, mask);
+        out.writeInt(longColumns.size());
+        for (Map.Entry<String, long[]> entry : longColumns.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeLongs(out, entry.getValue());
+        }
+        out.writeInt(doubleColumns.size());
+        for (Map.Entry<String, double[]> entry : doubleColumns.entrySet()) {
+            out.writeUTF(entry.getKey());
+            for (double value : entry.getValue()) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * 读取{@link #writeTo(DataOutput)}写出的序列
+     *
+     * @param in
+     * @return
+     * @throws IOException 格式不符
+     */
+    public static FillSeries readFrom(@NotNull DataInput in) throws IOException {
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new IOException("Invalid fill series format");
+        }
+        FillBlankTypeEnum fillBlankType;
+        try {
+            fillBlankType = FillBlankTypeEnum.valueOf(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid fill series format", e);
+        }
+        int step = in.readInt();
+        int size = in.readInt();
+        long[] keys = readLongs(in, size + 1);
+        long[] times = readLongs(in, size);
+        long[] fields = readLongs(in, size);
+        BitSet synthesized = BitSet.valueOf(readLongs(in, in.readInt()));
+        FillSeries series = new FillSeries(new FillSlots(fillBlankType, step, keys, times, fields), synthesized);
+        for (int i = in.readInt(); i > 0; i--) {
+            series.longColumns.put(in.readUTF(), readLongs(in, size));
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            String name = in.readUTF();
+            double[] column = new double[size];
+            for (int j = 0; j < size; j++) {
+                column[j] = in.readDouble();
+            }
+            series.doubleColumns.put(name, column);
+        }
+        return series;
+    }
+
+    private static void writeLongs(DataOutput out, long[] values) throws IOException {
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private static long[] readLongs(DataInput in, int size) throws IOException {
+        if (size < 0) {
+            throw new IOException("Invalid fill series format");
+        }
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankGenFunc;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.function.Supplier;
+
+/**
+ * 时间点游标: 复用同一个Calendar按填充类型与步长推进, 始终预先计算下一个时间点的桶键,
+ * 便于判断原始数据落在哪个时间点区间; 也可按已展开的时间点表回放
+ */
+class FillSlotCursor {
+
+    private final FillBlankTypeEnum fillBlankType;
+    private final int step;
+    private final long endTime;
+    //始终停在下一个时间点, 回放时为空
+    private final Calendar calendar;
+    //回放的时间点表及当前下标
+    private final FillSlots slots;
+    private int slotIndex = -1;
+
+    private int year;
+    private int month;
+    private int day;
+    private int hour;
+    private int minute;
+    private long time;
+    private long slotKey;
+    private long nextSlotKey;
+    private boolean hasSlot;
+
+    FillSlotCursor(FillBlankTypeEnum fillBlankType, int step, Date startDate, Date endDate) {
+        this(fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault());
+    }
+
+    /**
+     * @param startTime 填充时间起点, 纪元毫秒
+     * @param endTime   填充时间终点, 纪元毫秒
+     * @param zone      计算时间点所用时区, 按本地时间填充时传入零偏移时区
+     */
+    FillSlotCursor(FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, TimeZone zone) {
+        if (step < 1) {
+            throw new IllegalArgumentException("step should be positive!");
+        }
+        this.fillBlankType = fillBlankType;
+        this.step = step;
+        this.endTime = endTime;
+        this.calendar = Calendar.getInstance(zone);
+        this.calendar.setTimeInMillis(startTime);
+        this.slots = null;
+        align();
+        this.nextSlotKey = currentKey();
+        this.hasSlot = true;
+        load();
+    }
+
+    /**
+     * 按已展开的时间点表回放, 结果与按原参数新建游标一致
+     */
+    FillSlotCursor(FillSlots slots) {
+        this.fillBlankType = slots.fillBlankType;
+        this.step = slots.step;
+        this.endTime = slots.times[slots.size - 1];
+        this.calendar = null;
+        this.slots = slots;
+        this.hasSlot = true;
+        load();
+    }
+
+    /**
+     * 推进到下一个时间点
+     *
+     * @return 是否仍有时间点
+     */
+    boolean advance() {
+        if (!hasSlot || time >= endTime) {
+            hasSlot = false;
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    /**
+     * 从当前时间点起不晚于endTime的时间点个数, 按倍增与二分查找计算, 不逐个推进; 仅用于按参数新建的游标
+     *
+     * @param endTime 纪元毫秒
+     * @return 个数, 超过int范围可表示的步数时取上限
+     */
+    int countUntil(long endTime) {
+        checkCalendar();
+        if (!hasSlot || time > endTime) {
+            return 0;
+        }
+        //第k个后续时间点的累加量step * (k - 1)须在int范围内
+        int max = Integer.MAX_VALUE / step;
+        int low = 0;
+        int high = 1;
+        while (timeAfter(high) <= endTime) {
+            low = high;
+            if (high == max) {
+                return max;
+            }
+            high = (int) Math.min(max, high * 2L);
+        }
+        //timeAfter(low) <= endTime < timeAfter(high)
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (timeAfter(middle) <= endTime) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * 跳过slots个时间点, 不逐个推进; 跳过后的时间点按一次累加计算, 桶键与逐个推进一致
+     *
+     * @param slots 时间点个数
+     */
+    void skip(int slots) {
+        checkCalendar();
+        if (slots <= 0 || !hasSlot) {
+            return;
+        }
+        calendar.add(fillBlankType.getCalendarRule(), step * (slots - 1));
+        nextSlotKey = currentKey();
+        load();
+    }
+
+    //当前时间点之后第k(k >= 1)个时间点, 纪元毫秒
+    private long timeAfter(int k) {
+        Calendar probe = (Calendar) calendar.clone();
+        probe.add(fillBlankType.getCalendarRule(), step * (k - 1));
+        return probe.getTimeInMillis();
+    }
+
+    private void checkCalendar() {
+        if (slots != null) {
+            throw new IllegalStateException("cursor replays expanded slots!");
+        }
+    }
+
+    private void load() {
+        if (slots != null) {
+            slotIndex++;
+            long field = slots.fields[slotIndex];
+            year = (int) (field >> 32);
+            month = (int) (field >> 24 & 0xFF);
+            day = (int) (field >> 16 & 0xFF);
+            hour = (int) (field >> 8 & 0xFF);
+            minute = (int) (field & 0xFF);
+            time = slots.times[slotIndex];
+            slotKey = slots.keys[slotIndex];
+            nextSlotKey = slots.keys[slotIndex + 1];
+            return;
+        }
+        year = calendar.get(Calendar.YEAR);
+        month = calendar.get(Calendar.MONTH) + 1;
+        day = calendar.get(Calendar.DAY_OF_MONTH);
+        hour = calendar.get(Calendar.HOUR_OF_DAY);
+        minute = calendar.get(Calendar.MINUTE);
+        time = calendar.getTimeInMillis();
+        slotKey = nextSlotKey;
+        calendar.add(fillBlankType.getCalendarRule(), step);
+        nextSlotKey = currentKey();
+    }
+
+    /**
+     * 起点对齐: 按周填充对齐到周一, 多步长时按步长对齐到上级单位内的整数倍(如15分钟对齐到整刻)
+     */
+    private void align() {
+        switch (fillBlankType) {
+            case WEEK:
+                calendar.setFirstDayOfWeek(Calendar.MONDAY);
+                calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
+                break;
+            case MINUTE:
+            case HOUR:
+            case MONTH:
+            case YEAR:
+                int field = fillBlankType.getCalendarRule();
+                int value = calendar.get(field);
+                calendar.set(field, value - value % step);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private long currentKey() {
+        return fillBlankType.truncate(FillDateBlankUtil.packDateKey(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1,
+                calendar.get(Calendar.DAY_OF_MONTH), calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE)));
+    }
+
+    FillBlankTypeEnum getFillBlankType() {
+        return fillBlankType;
+    }
+
+    boolean hasSlot() {
+        return hasSlot;
+    }
+
+    //当前时间点的年/月/日/时/分, 布局同packDateKey
+    long getSlotFields() {
+        return FillDateBlankUtil.packDateKey(year, month, day, hour, minute);
+    }
+
+    long getTime() {
+        return time;
+    }
+
+    //当前时间点的桶键
+    long getSlotKey() {
+        return slotKey;
+    }
+
+    //下一个时间点的桶键, 原始数据桶键小于该值即落在当前时间点区间
+    long getNextSlotKey() {
+        return nextSlotKey;
+    }
+
+    //按当前时间点新建填充元素并调用填充生成函数
+    <T extends FillBlankBase> T newFiller(Supplier<? extends T> fillBlankFactory, FillBlankGenFunc fillBlankGenFunc) {
+        T fillBlankBase = fillBlankFactory.get();
+        FillDateBlankUtil.setSlotFields(fillBlankBase, fillBlankType, getSlotFields());
+        fillBlankGenFunc.fill(fillBlankBase);
+        return fillBlankBase;
+    }
+}
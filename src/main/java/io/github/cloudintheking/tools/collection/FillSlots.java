@@ -0,0 +1,112 @@
+package io.github.cloudintheking.tools.collection;
+
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankBase;
+import io.github.cloudintheking.tools.collection.FillDateBlankUtil.FillBlankTypeEnum;
+import io.github.cloudintheking.tools.date.EpochDateUtil;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 时间点表: 一次性展开填充区间内的全部时间点, 按下标保存桶键、时间与日期字段, 供按下标存放结果的聚合与列式序列使用
+ */
+final class FillSlots {
+
+    final FillBlankTypeEnum fillBlankType;
+    final int step;
+    final int size;
+    //各时间点的桶键, 多一位存放最后一个时间点区间的上界
+    final long[] keys;
+    //各时间点的时间, 纪元毫秒
+    final long[] times;
+    //各时间点未截断的日期字段, 按packDateKey打包
+    final long[] fields;
+
+    FillSlots(FillBlankTypeEnum fillBlankType, int step, long[] keys, long[] times, long[] fields) {
+        this.fillBlankType = fillBlankType;
+        this.step = step;
+        this.size = times.length;
+        this.keys = keys;
+        this.times = times;
+        this.fields = fields;
+    }
+
+    static FillSlots of(FillBlankTypeEnum fillBlankType, int step, Date startDate, Date endDate) {
+        return of(fillBlankType, step, startDate.getTime(), endDate.getTime(), TimeZone.getDefault());
+    }
+
+    static FillSlots of(FillBlankTypeEnum fillBlankType, int step, long startTime, long endTime, TimeZone zone) {
+        long[] keys = new long[16];
+        long[] times = new long[16];
+        long[] fields = new long[16];
+        int count = 0;
+        FillSlotCursor cursor = new FillSlotCursor(fillBlankType, step, startTime, endTime, zone);
+        long upperKey;
+        do {
+            if (count + 1 == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+                times = Arrays.copyOf(times, times.length * 2);
+                fields = Arrays.copyOf(fields, fields.length * 2);
+            }
+            keys[count] = cursor.getSlotKey();
+            times[count] = cursor.getTime();
+            fields[count] = cursor.getSlotFields();
+            upperKey = cursor.getNextSlotKey();
+            count++;
+        } while (cursor.advance());
+        keys[count] = upperKey;
+        return new FillSlots(fillBlankType, step, Arrays.copyOf(keys, count + 1), Arrays.copyOf(times, count), Arrays.copyOf(fields, count));
+    }
+
+    /**
+     * 纪元毫秒在本地时区下的日期键
+     */
+    static long dateKeyOf(long epochMillis, TimeZone zone) {
+        long localMillis = EpochDateUtil.toLocalMillis(epochMillis, zone);
+        long epochDay = EpochDateUtil.localEpochDay(localMillis);
+        int ymd = EpochDateUtil.epochDayToYmd(epochDay);
+        int millisOfDay = (int) (localMillis - epochDay * EpochDateUtil.MILLIS_PER_DAY);
+        return FillDateBlankUtil.packDateKey(ymd / 10000, ymd / 100 % 100, ymd % 100,
+                (int) (millisOfDay / EpochDateUtil.MILLIS_PER_HOUR), (int) (millisOfDay / EpochDateUtil.MILLIS_PER_MINUTE % 60));
+    }
+
+    /**
+     * 已截断的桶键对应的起始时间, 纪元毫秒; 按月、按年截断后为0的月、日取1
+     */
+    static long keyStartOf(long key, TimeZone zone) {
+        int month = Math.max(1, (int) (key >> 24 & 0xFF));
+        int day = Math.max(1, (int) (key >> 16 & 0xFF));
+        long epochDay = EpochDateUtil.toEpochDay((int) (key >> 32), month, day);
+        long localMillis = epochDay * EpochDateUtil.MILLIS_PER_DAY + (key >> 8 & 0xFF) * EpochDateUtil.MILLIS_PER_HOUR
+                + (key & 0xFF) * EpochDateUtil.MILLIS_PER_MINUTE;
+        return EpochDateUtil.toEpochMillis(localMillis, zone);
+    }
+
+    /**
+     * 日期键所在时间点下标
+     *
+     * @param dateKey 未截断的日期键
+     * @param hint    预计所在下标, 命中时免去查找
+     * @return 落在填充区间外时返回-1
+     */
+    int indexOf(long dateKey, int hint) {
+        long key = fillBlankType.truncate(dateKey);
+        if (hint >= 0 && hint < size && key >= keys[hint] && key < keys[hint + 1]) {
+            return hint;
+        }
+        int index = Arrays.binarySearch(keys, key);
+        //未命中时取不大于桶键的最后一个时间点
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index < 0 || index >= size ? -1 : index;
+    }
+
+    /**
+     * 按时间点写入日期字段, 与fillBlank生成的填充元素一致
+     */
+    void setDateFields(FillBlankBase fillBlankBase, int index) {
+        FillDateBlankUtil.setSlotFields(fillBlankBase, fillBlankType, fields[index]);
+    }
+}
@@ -0,0 +1,331 @@
+package io.github.cloudintheking.tools.date;
+
+import io.github.cloudintheking.tools.date.DateParseUtil.DateParseFormatEnum;
+import io.github.cloudintheking.tools.date.DateParseUtil.DateParseListener;
+
+import javax.validation.constraints.NotNull;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+
+/**
+ * 日期列批量解析: 直接从ByteBuffer(含内存映射文件MappedByteBuffer)读取ASCII日期字段写入纪元毫秒数组, 不创建String、Date.
+ * 支持的格式与DateUtil.DATE_REGEX_*一致; 首个非空字段确定列格式, 之后与该格式补零定长布局(如yyyy-MM-dd HH:mm:ss)一致的字段按固定位置读取,
+ * 其余字段(如未补零、混合格式)按自动识别解析, 结果相同. 堆缓冲区直接读取底层数组, 直接缓冲区分块复制到暂存数组; 除parseDelimited外不改变position.
+ * 非线程安全, 每列或每个线程一个实例
+ */
+public final class DateColumnParser {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    //直接缓冲区每次复制的字节数
+    private static final int CHUNK_SIZE = 8192;
+
+    //各格式补零定长布局, d为数字, 其余字符须相同; 秒+纳秒无定长布局
+    private static final byte[][] LAYOUTS = new byte[DateParseFormatEnum.values().length][];
+
+    static {
+        LAYOUTS[DateParseFormatEnum.YEAR_MONTH.ordinal()] = layout("dddd-dd");
+        LAYOUTS[DateParseFormatEnum.DATE.ordinal()] = layout("dddd-dd-dd");
+        LAYOUTS[DateParseFormatEnum.DATE_MINUTE.ordinal()] = layout("dddd-dd-dd dd:dd");
+        LAYOUTS[DateParseFormatEnum.DATE_SECOND.ordinal()] = layout("dddd-dd-dd dd:dd:dd");
+        LAYOUTS[DateParseFormatEnum.ISO_SECOND.ordinal()] = layout("dddd-dd-ddTdd:dd:ddZ");
+        LAYOUTS[DateParseFormatEnum.ISO_MILLISECOND.ordinal()] = layout("dddd-dd-ddTdd:dd:dd.dddZ");
+    }
+
+    private final TimeZone zone;
+    private final long nullValue;
+    //自动识别时复用的字符视图
+    private final AsciiView view = new AsciiView();
+    //直接缓冲区的暂存数组及读取用的副本, 副本不改变调用方缓冲区的position、limit
+    private byte[] scratch = new byte[64];
+    private ByteBuffer source;
+    private ByteBuffer reader;
+
+    private DateParseFormatEnum format;
+    private byte[] layout;
+
+    /**
+     * 无时区标识的格式按创建时的默认时区解释, 与同一时刻的DateUtil.pareDate一致; 空白字段写入Long.MIN_VALUE
+     */
+    public DateColumnParser() {
+        this(TimeZone.getDefault(), Long.MIN_VALUE);
+    }
+
+    /**
+     * @param zone      无时区标识的格式所用时区, 可传入DateContext的偏移表时区(见{@link DateContext#columnParser()})
+     * @param nullValue 空白字段写入的值
+     */
+    public DateColumnParser(@NotNull TimeZone zone, long nullValue) {
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        this.zone = zone;
+        this.nullValue = nullValue;
+    }
+
+    private static byte[] layout(String pattern) {
+        return pattern.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 列格式, 由首个非空字段确定
+     *
+     * @return 尚未解析到非空字段时为null
+     */
+    public DateParseFormatEnum getFormat() {
+        return format;
+    }
+
+    /**
+     * 指定为已知的列格式, 跳过首个字段的识别
+     *
+     * @param format 列格式
+     */
+    public void setFormat(@NotNull DateParseFormatEnum format) {
+        if (format == null) {
+            throw new IllegalArgumentException("format is null!");
+        }
+        this.format = format;
+        this.layout = LAYOUTS[format.ordinal()];
+    }
+
+    public long getNullValue() {
+        return nullValue;
+    }
+
+    /**
+     * 解析缓冲区绝对位置上的一个字段, 忽略首尾空白
+     *
+     * @param buffer 缓冲区
+     * @param offset 字段起始绝对位置
+     * @param length 字段长度
+     * @return 纪元毫秒, 空白时返回nullValue
+     */
+    public long parse(@NotNull ByteBuffer buffer, int offset, int length) {
+        DateParseListener listener = DateParseUtil.getListener();
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + checkRange(buffer, offset, length);
+            return parseField(buffer.array(), start, start + length, listener);
+        }
+        load(buffer, checkRange(buffer, offset, length), length);
+        return parseField(scratch, 0, length, listener);
+    }
+
+    /**
+     * 按给定的字段位置批量解析
+     *
+     * @param buffer  缓冲区
+     * @param offsets 各字段起始绝对位置
+     * @param lengths 各字段长度
+     * @param target  结果数组, 从下标0写入offsets.length个值
+     */
+    public void parse(@NotNull ByteBuffer buffer, @NotNull int[] offsets, @NotNull int[] lengths, @NotNull long[] target) {
+        if (offsets.length != lengths.length || target.length < offsets.length) {
+            throw new IllegalArgumentException("offsets, lengths and target size mismatch!");
+        }
+        DateParseListener listener = DateParseUtil.getListener();
+        if (buffer.hasArray()) {
+            byte[] bytes = buffer.array();
+            int base = buffer.arrayOffset();
+            for (int i = 0; i < offsets.length; i++) {
+                int start = base + checkRange(buffer, offsets[i], lengths[i]);
+                target[i] = parseField(bytes, start, start + lengths[i], listener);
+            }
+            return;
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            load(buffer, checkRange(buffer, offsets[i], lengths[i]), lengths[i]);
+            target[i] = parseField(scratch, 0, lengths[i], listener);
+        }
+    }
+
+    /**
+     * 从position起按分隔符切分字段批量解析(如按'\n'读取一列的日志文件), 末尾无分隔符的字段视为最后一个字段;
+     * 结果数组写满时停止, position停在下一个未解析字段的起点, 可换新数组继续调用; 解析失败时position停在出错字段起点
+     *
+     * @param buffer       缓冲区, position前移
+     * @param delimiter    字段分隔符, 如'\n'、','
+     * @param target       结果数组
+     * @param targetOffset 写入起始下标
+     * @return 写入的个数, 缓冲区已读完时为0
+     */
+    public int parseDelimited(@NotNull ByteBuffer buffer, byte delimiter, @NotNull long[] target, int targetOffset) {
+        if (targetOffset < 0 || targetOffset > target.length) {
+            throw new IndexOutOfBoundsException("targetOffset: " + targetOffset);
+        }
+        DateParseListener listener = DateParseUtil.getListener();
+        int count = targetOffset;
+        if (buffer.hasArray()) {
+            byte[] bytes = buffer.array();
+            int base = buffer.arrayOffset();
+            int pos = base + buffer.position();
+            int limit = base + buffer.limit();
+            while (pos < limit && count < target.length) {
+                int end = indexOf(bytes, pos, limit, delimiter);
+                target[count++] = parseField(bytes, pos, end, listener);
+                pos = end < limit ? end + 1 : end;
+                ((Buffer) buffer).position(pos - base);
+            }
+            return count - targetOffset;
+        }
+        //直接缓冲区(含内存映射)分块复制到暂存数组后解析
+        int pos = buffer.position();
+        int limit = buffer.limit();
+        while (pos < limit && count < target.length) {
+            int chunk = Math.min(limit - pos, Math.max(scratch.length, CHUNK_SIZE));
+            load(buffer, pos, chunk);
+            int start = 0;
+            while (start < chunk && count < target.length) {
+                int end = indexOf(scratch, start, chunk, delimiter);
+                if (end == chunk && pos + chunk < limit) {
+                    //字段跨块: 从字段起点重新读取, 单个字段超过块长时扩大暂存数组
+                    if (start == 0) {
+                        scratch = new byte[chunk * 2];
+                    }
+                    break;
+                }
+                target[count++] = parseField(scratch, start, end, listener);
+                start = end < chunk ? end + 1 : end;
+                ((Buffer) buffer).position(pos + start);
+            }
+            pos += start;
+        }
+        return count - targetOffset;
+    }
+
+    private static int checkRange(ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > buffer.limit() - length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", limit: " + buffer.limit());
+        }
+        return offset;
+    }
+
+    private static int indexOf(byte[] bytes, int pos, int end, byte delimiter) {
+        while (pos < end && bytes[pos] != delimiter) {
+            pos++;
+        }
+        return pos;
+    }
+
+    //将直接缓冲区的绝对区间整块复制到暂存数组开头
+    private void load(ByteBuffer buffer, int offset, int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        if (source != buffer) {
+            source = buffer;
+            reader = buffer.duplicate();
+        }
+        //转为Buffer调用, 兼容Java 8运行时
+        ((Buffer) reader).limit(offset + length);
+        ((Buffer) reader).position(offset);
+        reader.get(scratch, 0, length);
+    }
+
+    private long parseField(byte[] bytes, int start, int end, DateParseListener listener) {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return nullValue;
+        }
+        if (layout != null && matches(bytes, start, end)) {
+            if (listener == DateParseUtil.NOOP_LISTENER) {
+                return parseLayout(bytes, start, end - start);
+            }
+            long startNanos = System.nanoTime();
+            long millis = parseLayout(bytes, start, end - start);
+            DateParseUtil.notifyParse(listener, format, System.nanoTime() - startNanos);
+            return millis;
+        }
+        view.reset(bytes, start, end - start);
+        long millis = DateParseUtil.parse(view, 0, end - start, zone);
+        if (format == null) {
+            setFormat(DateParseUtil.formatOf(view, 0, end - start));
+        }
+        return millis;
+    }
+
+    private boolean matches(byte[] bytes, int start, int end) {
+        byte[] pattern = layout;
+        if (end - start != pattern.length) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            byte b = bytes[start + i];
+            if (pattern[i] == 'd' ? (b - '0' & 0xFF) > 9 : b != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //已按布局校验, 各字段位置固定
+    private long parseLayout(byte[] bytes, int pos, int length) {
+        int year = (bytes[pos] - '0') * 1000 + (bytes[pos + 1] - '0') * 100 + digits2(bytes, pos + 2);
+        int month = digits2(bytes, pos + 5);
+        if (length == 7) {
+            return DateParseUtil.toMillis(year, month, 1, 0, 0, 0, 0, zone);
+        }
+        int day = digits2(bytes, pos + 8);
+        if (length == 10) {
+            return DateParseUtil.toMillis(year, month, day, 0, 0, 0, 0, zone);
+        }
+        int hour = digits2(bytes, pos + 11);
+        int minute = digits2(bytes, pos + 14);
+        if (length == 16) {
+            return DateParseUtil.toMillis(year, month, day, hour, minute, 0, 0, zone);
+        }
+        int second = digits2(bytes, pos + 17);
+        if (length == 19) {
+            return DateParseUtil.toMillis(year, month, day, hour, minute, second, 0, zone);
+        }
+        int millisecond = length == 24 ? (bytes[pos + 20] - '0') * 100 + digits2(bytes, pos + 21) : 0;
+        return DateParseUtil.toMillis(year, month, day, hour, minute, second, millisecond, UTC);
+    }
+
+    private static int digits2(byte[] bytes, int pos) {
+        return (bytes[pos] - '0') * 10 + (bytes[pos + 1] - '0');
+    }
+
+    //字节区间的ASCII字符视图, 仅出错时创建字符串
+    private static final class AsciiView implements CharSequence {
+        private byte[] bytes;
+        private int base;
+        private int length;
+
+        void reset(byte[] bytes, int base, int length) {
+            this.bytes = bytes;
+            this.base = base;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[base + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder builder = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+}
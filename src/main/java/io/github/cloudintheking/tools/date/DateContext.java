@@ -0,0 +1,317 @@
+package io.github.cloudintheking.tools.date;
+
+import org.apache.commons.lang3.time.FastDateFormat;
+
+import javax.validation.constraints.NotNull;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 显式的日期计算上下文(时区、一周起点、第一周最少天数、区域), 与DateUtil提供相同的日期计算,
+ * 但不依赖JVM默认时区/区域, 适合按租户时区计算; 不可变, 可在线程间共享
+ */
+public final class DateContext {
+
+    //按时区ID缓存的偏移切换表, 读取无锁
+    private static final ConcurrentMap<String, TimeZone> OFFSET_TABLES = new ConcurrentHashMap<>();
+    //按默认区域、时区ID缓存的默认上下文
+    private static final ConcurrentMap<Locale, ConcurrentMap<String, DateContext>> CONTEXTS = new ConcurrentHashMap<>();
+
+    private final TimeZone zone;
+    //偏移计算用的只读时区
+    private final TimeZone offsetZone;
+    private final int firstDayOfWeek;
+    private final int minimalDaysInFirstWeek;
+    private final Locale locale;
+
+    private DateContext(TimeZone zone, TimeZone offsetZone, int firstDayOfWeek, int minimalDaysInFirstWeek, Locale locale) {
+        this.zone = zone;
+        this.offsetZone = offsetZone;
+        this.firstDayOfWeek = firstDayOfWeek;
+        this.minimalDaysInFirstWeek = minimalDaysInFirstWeek;
+        this.locale = locale;
+    }
+
+    /**
+     * 与DateUtil规则一致的上下文: 周一为一周起点, 第一周最少天数取当前默认区域; 按默认区域与时区缓存
+     *
+     * @param zone 时区
+     * @return
+     */
+    public static DateContext of(@NotNull TimeZone zone) {
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        Locale locale = Locale.getDefault();
+        ConcurrentMap<String, DateContext> contexts = CONTEXTS.computeIfAbsent(locale, key -> new ConcurrentHashMap<>());
+        DateContext context = contexts.get(zone.getID());
+        if (context != null && context.zone.hasSameRules(zone)) {
+            return context;
+        }
+        context = of(zone, Calendar.MONDAY, Calendar.getInstance(zone, locale).getMinimalDaysInFirstWeek(), locale);
+        if (TimeZone.getTimeZone(zone.getID()).hasSameRules(zone)) {
+            contexts.putIfAbsent(zone.getID(), context);
+        }
+        return context;
+    }
+
+    /**
+     * 一周起点与第一周最少天数取区域规则的上下文(如美国周日为一周起点)
+     *
+     * @param zone   时区
+     * @param locale 区域
+     * @return
+     */
+    public static DateContext of(@NotNull TimeZone zone, @NotNull Locale locale) {
+        checkZoneAndLocale(zone, locale);
+        Calendar calendar = Calendar.getInstance(zone, locale);
+        return of(zone, calendar.getFirstDayOfWeek(), calendar.getMinimalDaysInFirstWeek(), locale);
+    }
+
+    /**
+     * @param zone                   时区
+     * @param firstDayOfWeek         一周起点, 同Calendar.SUNDAY ~ Calendar.SATURDAY
+     * @param minimalDaysInFirstWeek 第一周最少天数, 1-7
+     * @param locale                 区域, 用于格式化
+     * @return
+     */
+    public static DateContext of(@NotNull TimeZone zone, int firstDayOfWeek, int minimalDaysInFirstWeek, @NotNull Locale locale) {
+        checkZoneAndLocale(zone, locale);
+        if (firstDayOfWeek < Calendar.SUNDAY || firstDayOfWeek > Calendar.SATURDAY) {
+            throw new IllegalArgumentException("Invalid firstDayOfWeek " + firstDayOfWeek);
+        }
+        if (minimalDaysInFirstWeek < 1 || minimalDaysInFirstWeek > 7) {
+            throw new IllegalArgumentException("Invalid minimalDaysInFirstWeek " + minimalDaysInFirstWeek);
+        }
+        TimeZone copy = (TimeZone) zone.clone();
+        return new DateContext(copy, offsetTable(copy), firstDayOfWeek, minimalDaysInFirstWeek, locale);
+    }
+
+    private static void checkZoneAndLocale(TimeZone zone, Locale locale) {
+        if (zone == null) {
+            throw new IllegalArgumentException("zone is null!");
+        }
+        if (locale == null) {
+            throw new IllegalArgumentException("locale is null!");
+        }
+    }
+
+    private static TimeZone offsetTable(TimeZone zone) {
+        TimeZone offsetZone = OFFSET_TABLES.get(zone.getID());
+        if (offsetZone != null && offsetZone.hasSameRules(zone)) {
+            return offsetZone;
+        }
+        offsetZone = OffsetTableZone.of(zone);
+        if (offsetZone instanceof OffsetTableZone) {
+            TimeZone previous = OFFSET_TABLES.putIfAbsent(zone.getID(), offsetZone);
+            return previous != null && previous.hasSameRules(zone) ? previous : offsetZone;
+        }
+        return offsetZone;
+    }
+
+    /**
+     * @return 时区副本
+     */
+    public TimeZone getZone() {
+        return (TimeZone) zone.clone();
+    }
+
+    public int getFirstDayOfWeek() {
+        return firstDayOfWeek;
+    }
+
+    public int getMinimalDaysInFirstWeek() {
+        return minimalDaysInFirstWeek;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * 格式化
+     *
+     * @param epochMillis 纪元毫秒
+     * @param pattern     日期格式
+     * @return
+     */
+    public String format(long epochMillis, @NotNull String pattern) {
+        int width = DateFormatUtil.widthOf(pattern);
+        if (width > 0) {
+            return DateFormatUtil.append(epochMillis, offsetZone, width, new StringBuilder(width)).toString();
+        }
+        return FastDateFormat.getInstance(pattern, zone, locale).format(epochMillis);
+    }
+
+    public String format(@NotNull Date date, @NotNull String pattern) {
+        return format(date.getTime(), pattern);
+    }
+
+    /**
+     * 自动识别格式解析, 规则同DateUtil.pareDate, 无时区标识的格式按当前时区解释
+     *
+     * @param source 日期字符序列
+     * @return 空白时返回null
+     */
+    public Date pareDate(@NotNull CharSequence source) {
+        int start = DateParseUtil.trimStart(source, 0, source.length());
+        int end = DateParseUtil.trimEnd(source, start, source.length() - start);
+        if (DateParseUtil.isBlank(source, start, end - start)) {
+            return null;
+        }
+        return new Date(DateParseUtil.parse(source, start, end - start, offsetZone));
+    }
+
+    /**
+     * 按当前时区解释的日期列批量解析器, 空白字段写入Long.MIN_VALUE
+     *
+     * @return 新建的解析器, 非线程安全
+     */
+    public DateColumnParser columnParser() {
+        return new DateColumnParser(offsetZone, Long.MIN_VALUE);
+    }
+
+    public long getStartOfDay(long epochMillis) {
+        return EpochDateUtil.startOfDay(epochMillis, offsetZone);
+    }
+
+    public Date getStartOfDay(@NotNull Date date) {
+        return new Date(getStartOfDay(date.getTime()));
+    }
+
+    public long getEndOfDay(long epochMillis) {
+        return EpochDateUtil.endOfDay(epochMillis, offsetZone);
+    }
+
+    public Date getEndOfDay(@NotNull Date date) {
+        return new Date(getEndOfDay(date.getTime()));
+    }
+
+    public long getFirstDayOfMonth(long epochMillis) {
+        return EpochDateUtil.firstDayOfMonth(epochMillis, offsetZone);
+    }
+
+    public Date getFirstDayOfMonth(@NotNull Date date) {
+        return new Date(getFirstDayOfMonth(date.getTime()));
+    }
+
+    public long getLastDayOfMonth(long epochMillis) {
+        return EpochDateUtil.lastDayOfMonth(epochMillis, offsetZone);
+    }
+
+    public Date getLastDayOfMonth(@NotNull Date date) {
+        return new Date(getLastDayOfMonth(date.getTime()));
+    }
+
+    public long getFirstDayOfWeek(long epochMillis) {
+        return EpochDateUtil.firstDayOfWeek(epochMillis, offsetZone, firstDayOfWeek);
+    }
+
+    public Date getFirstDayOfWeek(@NotNull Date date) {
+        return new Date(getFirstDayOfWeek(date.getTime()));
+    }
+
+    public long getLastDayOfWeek(long epochMillis) {
+        return EpochDateUtil.lastDayOfWeek(epochMillis, offsetZone, firstDayOfWeek);
+    }
+
+    public Date getLastDayOfWeek(@NotNull Date date) {
+        return new Date(getLastDayOfWeek(date.getTime()));
+    }
+
+    public long getFirstDayOfYear(long epochMillis) {
+        return EpochDateUtil.firstDayOfYear(epochMillis, offsetZone);
+    }
+
+    public Date getFirstDayOfYear(@NotNull Date date) {
+        return new Date(getFirstDayOfYear(date.getTime()));
+    }
+
+    public long getLastDayOfYear(long epochMillis) {
+        return EpochDateUtil.lastDayOfYear(epochMillis, offsetZone);
+    }
+
+    public Date getLastDayOfYear(@NotNull Date date) {
+        return new Date(getLastDayOfYear(date.getTime()));
+    }
+
+    /**
+     * 周数, 同按本上下文配置的Calendar.WEEK_OF_YEAR
+     *
+     * @param epochMillis
+     * @return
+     */
+    public int getWeekOfYear(long epochMillis) {
+        return EpochDateUtil.weekOfYear(epochMillis, offsetZone, firstDayOfWeek, minimalDaysInFirstWeek);
+    }
+
+    public int getWeekOfYear(@NotNull Date date) {
+        return getWeekOfYear(date.getTime());
+    }
+
+    /**
+     * 周几, 取值同Calendar.DAY_OF_WEEK(周日为1)
+     *
+     * @param epochMillis
+     * @return
+     */
+    public int getDayOfWeek(long epochMillis) {
+        return EpochDateUtil.dayOfWeek(epochMillis, offsetZone);
+    }
+
+    public int getDayOfWeek(@NotNull Date date) {
+        return getDayOfWeek(date.getTime());
+    }
+
+    /**
+     * 增加/减少时间, 语义同Calendar.add
+     *
+     * @param epochMillis
+     * @param field       Calendar字段
+     * @param amount
+     * @return
+     */
+    public long addDate(long epochMillis, int field, int amount) {
+        return EpochDateUtil.add(epochMillis, offsetZone, field, amount);
+    }
+
+    public Date addDate(@NotNull Date date, int field, int amount) {
+        return new Date(addDate(date.getTime(), field, amount));
+    }
+
+    public boolean isSameDay(long epochMillis1, long epochMillis2) {
+        return EpochDateUtil.isSameDay(epochMillis1, epochMillis2, offsetZone);
+    }
+
+    public boolean isSameDay(@NotNull Date date1, @NotNull Date date2) {
+        return isSameDay(date1.getTime(), date2.getTime());
+    }
+
+    public long betweenDay(long start, long end) {
+        return EpochDateUtil.betweenDay(start, end, offsetZone);
+    }
+
+    public long betweenHour(long start, long end) {
+        return EpochDateUtil.betweenHour(start, end, offsetZone);
+    }
+
+    public long betweenWeek(long start, long end) {
+        long startDay = EpochDateUtil.localEpochDay(EpochDateUtil.toLocalMillis(start, offsetZone));
+        long endDay = EpochDateUtil.localEpochDay(EpochDateUtil.toLocalMillis(end, offsetZone));
+        return ((endDay - EpochDateUtil.dayOfWeekIndex(endDay, firstDayOfWeek)) - (startDay - EpochDateUtil.dayOfWeekIndex(startDay, firstDayOfWeek))) / 7;
+    }
+
+    public long betweenMonth(long start, long end) {
+        return EpochDateUtil.betweenMonth(start, end, offsetZone);
+    }
+
+    @Override
+    public String toString() {
+        return "DateContext{zone=" + zone.getID() + ", firstDayOfWeek=" + firstDayOfWeek
+                + ", minimalDaysInFirstWeek=" + minimalDaysInFirstWeek + ", locale=" + locale + "}";
+    }
+}
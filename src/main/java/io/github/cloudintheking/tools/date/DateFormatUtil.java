@@ -0,0 +1,233 @@
+package io.github.cloudintheking.tools.date;
+
+import org.apache.commons.lang3.time.FastDateFormat;
+
+import java.nio.ByteBuffer;
+import java.util.TimeZone;
+
+//yyyy-MM-dd HH:mm:ss.SSS 定长数字格式族的直接写出, 写入调用方提供的缓冲区, 不查格式缓存、不创建中间字符串
+public final class DateFormatUtil {
+
+    //yyyy-MM-dd HH:mm:ss.SSS 各前缀的长度
+    public static final int WIDTH_ON_YEAR = 4;
+    public static final int WIDTH_ON_MONTH = 7;
+    public static final int WIDTH_ON_DAY = 10;
+    public static final int WIDTH_ON_HOUR = 13;
+    public static final int WIDTH_ON_MINUTE = 16;
+    public static final int WIDTH_ON_SECOND = 19;
+    public static final int WIDTH_DEFAULT = 23;
+
+    //按此区间内的年份直接写出, 区间外(儒略历或超过4位年份)交给FastDateFormat
+    private static final int MIN_FAST_YEAR = 1600;
+    private static final int MAX_FAST_YEAR = 9999;
+
+    //各位置的分隔符, 0表示数字
+    private static final char[] SEPARATORS = "0000-00-00 00:00:00.000".toCharArray();
+
+    private DateFormatUtil() {
+    }
+
+    /**
+     * 格式对应的定长宽度
+     *
+     * @param pattern 日期格式
+     * @return 不属于yyyy-MM-dd HH:mm:ss.SSS前缀族时返回-1
+     */
+    public static int widthOf(String pattern) {
+        switch (pattern) {
+            case DateUtil.PATTERN_DEFAULT_ON_YEAR:
+                return WIDTH_ON_YEAR;
+            case DateUtil.PATTERN_DEFAULT_ON_MONTH:
+                return WIDTH_ON_MONTH;
+            case DateUtil.PATTERN_DEFAULT_ON_DAY:
+                return WIDTH_ON_DAY;
+            case DateUtil.PATTERN_DEFAULT_ON_HOUR:
+                return WIDTH_ON_HOUR;
+            case DateUtil.PATTERN_DEFAULT_ON_MINUTE:
+                return WIDTH_ON_MINUTE;
+            case DateUtil.PATTERN_DEFAULT_ON_SECOND:
+                return WIDTH_ON_SECOND;
+            case DateUtil.PATTERN_DEFAULT:
+                return WIDTH_DEFAULT;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * 写入字符数组
+     *
+     * @param epochMillis 纪元毫秒
+     * @param zone        时区
+     * @param width       定长宽度, 见WIDTH_*
+     * @param buffer      目标数组
+     * @param offset      写入位置
+     * @return 写入后的位置
+     */
+    public static int write(long epochMillis, TimeZone zone, int width, char[] buffer, int offset) {
+        checkWidth(width);
+        long localMillis = EpochDateUtil.toLocalMillis(epochMillis, zone);
+        int ymd = EpochDateUtil.epochDayToYmd(EpochDateUtil.localEpochDay(localMillis));
+        int year = ymd / 10000;
+        if (year < MIN_FAST_YEAR || year > MAX_FAST_YEAR) {
+            String text = fallbackFormat(epochMillis, zone, width);
+            text.getChars(0, text.length(), buffer, offset);
+            return offset + text.length();
+        }
+        int millisOfDay = (int) Math.floorMod(localMillis, EpochDateUtil.MILLIS_PER_DAY);
+        for (int i = 0; i < width; i++) {
+            buffer[offset + i] = charAt(ymd, millisOfDay, i);
+        }
+        return offset + width;
+    }
+
+    /**
+     * 追加到StringBuilder
+     *
+     * @param epochMillis 纪元毫秒
+     * @param zone        时区
+     * @param width       定长宽度, 见WIDTH_*
+     * @param builder     目标
+     * @return
+     */
+    public static StringBuilder append(long epochMillis, TimeZone zone, int width, StringBuilder builder) {
+        checkWidth(width);
+        long localMillis = EpochDateUtil.toLocalMillis(epochMillis, zone);
+        int ymd = EpochDateUtil.epochDayToYmd(EpochDateUtil.localEpochDay(localMillis));
+        int year = ymd / 10000;
+        if (year < MIN_FAST_YEAR || year > MAX_FAST_YEAR) {
+            return builder.append(fallbackFormat(epochMillis, zone, width));
+        }
+        int millisOfDay = (int) Math.floorMod(localMillis, EpochDateUtil.MILLIS_PER_DAY);
+        for (int i = 0; i < width; i++) {
+            builder.append(charAt(ymd, millisOfDay, i));
+        }
+        return builder;
+    }
+
+    /**
+     * 以ASCII写入ByteBuffer, 从当前position开始
+     *
+     * @param epochMillis 纪元毫秒
+     * @param zone        时区
+     * @param width       定长宽度, 见WIDTH_*
+     * @param buffer      目标
+     * @return
+     */
+    public static ByteBuffer put(long epochMillis, TimeZone zone, int width, ByteBuffer buffer) {
+        checkWidth(width);
+        long localMillis = EpochDateUtil.toLocalMillis(epochMillis, zone);
+        int ymd = EpochDateUtil.epochDayToYmd(EpochDateUtil.localEpochDay(localMillis));
+        int year = ymd / 10000;
+        if (year < MIN_FAST_YEAR || year > MAX_FAST_YEAR) {
+            String text = fallbackFormat(epochMillis, zone, width);
+            for (int i = 0; i < text.length(); i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+            return buffer;
+        }
+        int millisOfDay = (int) Math.floorMod(localMillis, EpochDateUtil.MILLIS_PER_DAY);
+        for (int i = 0; i < width; i++) {
+            buffer.put((byte) charAt(ymd, millisOfDay, i));
+        }
+        return buffer;
+    }
+
+    //yyyy-MM-dd HH:mm:ss.SSS 第index位字符
+    private static char charAt(int ymd, int millisOfDay, int index) {
+        switch (index) {
+            case 0:
+                return digit(ymd / 10000000);
+            case 1:
+                return digit(ymd / 1000000);
+            case 2:
+                return digit(ymd / 100000);
+            case 3:
+                return digit(ymd / 10000);
+            case 5:
+                return digit(ymd / 1000);
+            case 6:
+                return digit(ymd / 100);
+            case 8:
+                return digit(ymd / 10);
+            case 9:
+                return digit(ymd);
+            case 11:
+                return digit(millisOfDay / 36000000);
+            case 12:
+                return digit(millisOfDay / 3600000);
+            case 14:
+                return digit(millisOfDay / 60000 % 60 / 10);
+            case 15:
+                return digit(millisOfDay / 60000);
+            case 17:
+                return digit(millisOfDay / 1000 % 60 / 10);
+            case 18:
+                return digit(millisOfDay / 1000);
+            case 20:
+                return digit(millisOfDay / 100);
+            case 21:
+                return digit(millisOfDay / 10);
+            case 22:
+                return digit(millisOfDay);
+            default:
+                return SEPARATORS[index];
+        }
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value % 10);
+    }
+
+    /**
+     * 按字段写出 yyyy-MM-dd HH:mm, 字段超出两位(年份超出四位)时与String.format一样按实际位数输出
+     *
+     * @param year
+     * @param month
+     * @param day
+     * @param hour
+     * @param minute
+     * @return
+     */
+    public static String formatFields(int year, int month, int day, int hour, int minute) {
+        if (year < 0 || year > 9999 || (month | day | hour | minute) < 0 || month > 99 || day > 99 || hour > 99 || minute > 99) {
+            return String.format("%04d-%02d-%02d %02d:%02d", year, month, day, hour, minute);
+        }
+        char[] buffer = new char[WIDTH_ON_MINUTE];
+        write4(buffer, 0, year);
+        buffer[4] = '-';
+        write2(buffer, 5, month);
+        buffer[7] = '-';
+        write2(buffer, 8, day);
+        buffer[10] = ' ';
+        write2(buffer, 11, hour);
+        buffer[13] = ':';
+        write2(buffer, 14, minute);
+        return new String(buffer);
+    }
+
+    private static String fallbackFormat(long epochMillis, TimeZone zone, int width) {
+        return FastDateFormat.getInstance(patternOf(width), zone).format(epochMillis);
+    }
+
+    private static String patternOf(int width) {
+        return DateUtil.PATTERN_DEFAULT.substring(0, width);
+    }
+
+    private static void checkWidth(int width) {
+        if (width < WIDTH_ON_YEAR || width > WIDTH_DEFAULT || SEPARATORS[width - 1] != '0') {
+            throw new IllegalArgumentException("Invalid width " + width);
+        }
+    }
+
+    private static void write4(char[] buffer, int offset, int value) {
+        buffer[offset] = (char) ('0' + value / 1000);
+        buffer[offset + 1] = (char) ('0' + value / 100 % 10);
+        write2(buffer, offset + 2, value % 100);
+    }
+
+    private static void write2(char[] buffer, int offset, int value) {
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+    }
+}
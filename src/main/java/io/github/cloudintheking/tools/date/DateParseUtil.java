@@ -0,0 +1,358 @@
+package io.github.cloudintheking.tools.date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.TimeZone;
+
+//日期字符串单次扫描解析, 支持的格式与DateUtil.DATE_REGEX_*一致, 不编译正则、不创建中间字符串
+public final class DateParseUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(DateParseUtil.class);
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    //自动识别的格式
+    public enum DateParseFormatEnum {
+        YEAR_MONTH(DateUtil.DATE_REGEX_YYYYMM),
+        DATE(DateUtil.DATE_REGEX_YYYYMMDD),
+        DATE_MINUTE(DateUtil.DATE_REGEX_YYYYMMDDHHMM),
+        DATE_SECOND(DateUtil.DATE_REGEX_YYYYMMDDHHMMSS),
+        ISO_SECOND(DateUtil.DATE_REGEX_YYYYMMDD_T_HHMMSS_Z),
+        ISO_MILLISECOND(DateUtil.DATE_REGEX_YYYYMMDD_T_HHMMSS_SSS_Z),
+        SECOND_DOT_NANOSECOND(DateUtil.DATE_REGEX_SECOND_DOT_NANOSECOND);
+
+        private final String regex;
+
+        DateParseFormatEnum(String regex) {
+            this.regex = regex;
+        }
+
+        public String getRegex() {
+            return regex;
+        }
+    }
+
+    //解析监听, 用于统计格式分布、耗时与失败; 默认实现为空操作
+    public interface DateParseListener {
+        /**
+         * 解析成功
+         *
+         * @param format 识别出的格式
+         * @param nanos  耗时, 纳秒
+         */
+        default void onParse(DateParseFormatEnum format, long nanos) {
+        }
+
+        /**
+         * 解析失败, 异常仍抛给调用方
+         *
+         * @param source 去掉首尾空白后的字符序列
+         * @param cause  解析异常
+         */
+        default void onParseFailure(CharSequence source, RuntimeException cause) {
+        }
+    }
+
+    public static final DateParseListener NOOP_LISTENER = new DateParseListener() {
+    };
+
+    private static volatile DateParseListener listener = NOOP_LISTENER;
+
+    private DateParseUtil() {
+    }
+
+    /**
+     * 设置解析监听, 传null恢复为空操作; 未设置时解析路径只多一次引用比较
+     *
+     * @param parseListener
+     */
+    public static void setListener(DateParseListener parseListener) {
+        listener = parseListener != null ? parseListener : NOOP_LISTENER;
+    }
+
+    public static DateParseListener getListener() {
+        return listener;
+    }
+
+    /**
+     * 去掉首尾空白(同String.trim)后的起始位置
+     *
+     * @param source
+     * @param offset
+     * @param length
+     * @return
+     */
+    public static int trimStart(CharSequence source, int offset, int length) {
+        int end = offset + length;
+        while (offset < end && source.charAt(offset) <= ' ') {
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * 去掉首尾空白(同String.trim)后的结束位置(不含)
+     *
+     * @param source
+     * @param offset
+     * @param length
+     * @return
+     */
+    public static int trimEnd(CharSequence source, int offset, int length) {
+        int end = offset + length;
+        while (end > offset && source.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 是否空白(同StringUtils.isBlank)
+     *
+     * @param source
+     * @param offset
+     * @param length
+     * @return
+     */
+    public static boolean isBlank(CharSequence source, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (!Character.isWhitespace(source.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 自动识别格式并解析为纪元毫秒, 不含首尾空白; 带Z的ISO格式按UTC解析, 其余按给定时区解析,
+     * 月、日、时、分、秒超出范围时与Calendar宽松模式一样顺延
+     *
+     * @param source 日期字符序列
+     * @param offset 起始位置
+     * @param length 长度
+     * @param zone   本地时区
+     * @return
+     * @throws IllegalArgumentException 格式不支持
+     * @throws NumberFormatException    秒+纳秒格式的秒数超出long范围
+     */
+    public static long parse(CharSequence source, int offset, int length, TimeZone zone) {
+        DateParseListener parseListener = listener;
+        if (parseListener == NOOP_LISTENER) {
+            return parseUnobserved(source, offset, length, zone);
+        }
+        long startNanos = System.nanoTime();
+        long millis;
+        try {
+            millis = parseUnobserved(source, offset, length, zone);
+        } catch (RuntimeException e) {
+            try {
+                parseListener.onParseFailure(source.subSequence(offset, offset + length), e);
+            } catch (RuntimeException listenerError) {
+                log.warn("date parse listener failed", listenerError);
+            }
+            throw e;
+        }
+        notifyParse(parseListener, formatOf(source, offset, length), System.nanoTime() - startNanos);
+        return millis;
+    }
+
+    //监听异常只记录日志, 不影响解析结果
+    static void notifyParse(DateParseListener parseListener, DateParseFormatEnum format, long nanos) {
+        try {
+            parseListener.onParse(format, nanos);
+        } catch (RuntimeException listenerError) {
+            log.warn("date parse listener failed", listenerError);
+        }
+    }
+
+    /**
+     * 已能成功解析的字符序列的格式
+     *
+     * @param source 日期字符序列, 不含首尾空白
+     * @param offset 起始位置
+     * @param length 长度
+     * @return
+     */
+    public static DateParseFormatEnum formatOf(CharSequence source, int offset, int length) {
+        int end = offset + length;
+        if (length <= 4 || source.charAt(offset + 4) != '-') {
+            return DateParseFormatEnum.SECOND_DOT_NANOSECOND;
+        }
+        int dashes = 0;
+        int colons = 0;
+        boolean iso = false;
+        boolean dot = false;
+        for (int i = offset + 4; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '-') {
+                dashes++;
+            } else if (c == ':') {
+                colons++;
+            } else if (c == 'T') {
+                iso = true;
+            } else if (c == '.') {
+                dot = true;
+            }
+        }
+        if (iso) {
+            return dot ? DateParseFormatEnum.ISO_MILLISECOND : DateParseFormatEnum.ISO_SECOND;
+        }
+        if (colons == 0) {
+            return dashes == 1 ? DateParseFormatEnum.YEAR_MONTH : DateParseFormatEnum.DATE;
+        }
+        return colons == 1 ? DateParseFormatEnum.DATE_MINUTE : DateParseFormatEnum.DATE_SECOND;
+    }
+
+    private static long parseUnobserved(CharSequence source, int offset, int length, TimeZone zone) {
+        int end = offset + length;
+        int pos = offset;
+        //秒+纳秒: 纯数字后跟小数点
+        int digits = countDigits(source, pos, end);
+        if (digits == 0) {
+            throw invalid(source, offset, end);
+        }
+        if (digits != 4 || pos + 4 == end || source.charAt(pos + 4) != '-') {
+            return parseSecondDotNanosecond(source, offset, end, digits);
+        }
+        int year = readNumber(source, pos, 4);
+        pos += 5;
+        //月
+        digits = countDigits(source, pos, end);
+        if (digits < 1 || digits > 2) {
+            throw invalid(source, offset, end);
+        }
+        int month = readNumber(source, pos, digits);
+        pos += digits;
+        if (pos == end) {
+            return toMillis(year, month, 1, 0, 0, 0, 0, zone);
+        }
+        if (source.charAt(pos++) != '-') {
+            throw invalid(source, offset, end);
+        }
+        //日
+        digits = countDigits(source, pos, end);
+        if (digits < 1 || digits > 2) {
+            throw invalid(source, offset, end);
+        }
+        int day = readNumber(source, pos, digits);
+        pos += digits;
+        if (pos == end) {
+            return toMillis(year, month, day, 0, 0, 0, 0, zone);
+        }
+        char separator = source.charAt(pos++);
+        if (separator != ' ' && separator != 'T') {
+            throw invalid(source, offset, end);
+        }
+        //时、分
+        digits = countDigits(source, pos, end);
+        if (digits < 1 || digits > 2) {
+            throw invalid(source, offset, end);
+        }
+        int hour = readNumber(source, pos, digits);
+        pos += digits;
+        if (pos == end || source.charAt(pos++) != ':') {
+            throw invalid(source, offset, end);
+        }
+        digits = countDigits(source, pos, end);
+        if (digits < 1 || digits > 2) {
+            throw invalid(source, offset, end);
+        }
+        int minute = readNumber(source, pos, digits);
+        pos += digits;
+        if (pos == end) {
+            if (separator == 'T') {
+                throw invalid(source, offset, end);
+            }
+            return toMillis(year, month, day, hour, minute, 0, 0, zone);
+        }
+        //秒
+        if (source.charAt(pos++) != ':') {
+            throw invalid(source, offset, end);
+        }
+        digits = countDigits(source, pos, end);
+        if (digits < 1 || digits > 2) {
+            throw invalid(source, offset, end);
+        }
+        int second = readNumber(source, pos, digits);
+        pos += digits;
+        if (separator == ' ') {
+            if (pos != end) {
+                throw invalid(source, offset, end);
+            }
+            return toMillis(year, month, day, hour, minute, second, 0, zone);
+        }
+        //ISO: [.SSS]Z
+        int millisecond = 0;
+        if (pos < end && source.charAt(pos) == '.') {
+            pos++;
+            digits = countDigits(source, pos, end);
+            if (digits < 1 || digits > 3) {
+                throw invalid(source, offset, end);
+            }
+            millisecond = readNumber(source, pos, digits);
+            pos += digits;
+        }
+        if (pos + 1 != end || source.charAt(pos) != 'Z') {
+            throw invalid(source, offset, end);
+        }
+        return toMillis(year, month, day, hour, minute, second, millisecond, UTC);
+    }
+
+    //秒+纳秒, 纳秒按整数值解析(与Instant.ofEpochSecond(秒, 纳秒)一致)
+    private static long parseSecondDotNanosecond(CharSequence source, int offset, int end, int digits) {
+        int pos = offset + digits;
+        if (pos == end || source.charAt(pos) != '.') {
+            throw invalid(source, offset, end);
+        }
+        int nanoDigits = countDigits(source, pos + 1, end);
+        if (nanoDigits < 1 || nanoDigits > 9 || pos + 1 + nanoDigits != end) {
+            throw invalid(source, offset, end);
+        }
+        long seconds = 0;
+        for (int i = offset; i < pos; i++) {
+            int digit = source.charAt(i) - '0';
+            if (seconds > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("For input string: \"" + source.subSequence(offset, pos) + "\"");
+            }
+            seconds = seconds * 10 + digit;
+        }
+        int nanos = readNumber(source, pos + 1, nanoDigits);
+        try {
+            return Math.addExact(Math.multiplyExact(seconds, EpochDateUtil.MILLIS_PER_SECOND), nanos / 1000000);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    static long toMillis(int year, int month, int day, int hour, int minute, int second, int millisecond, TimeZone zone) {
+        long localMillis = EpochDateUtil.toEpochDay(year, month, day) * EpochDateUtil.MILLIS_PER_DAY
+                + hour * EpochDateUtil.MILLIS_PER_HOUR + minute * EpochDateUtil.MILLIS_PER_MINUTE
+                + second * EpochDateUtil.MILLIS_PER_SECOND + millisecond;
+        return EpochDateUtil.toEpochMillis(localMillis, zone);
+    }
+
+    private static int countDigits(CharSequence source, int pos, int end) {
+        int start = pos;
+        while (pos < end) {
+            char c = source.charAt(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            pos++;
+        }
+        return pos - start;
+    }
+
+    private static int readNumber(CharSequence source, int pos, int digits) {
+        int value = 0;
+        for (int end = pos + digits; pos < end; pos++) {
+            value = value * 10 + (source.charAt(pos) - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence source, int offset, int end) {
+        return new IllegalArgumentException("Invalid date value '" + source.subSequence(offset, end) + "'");
+    }
+}
@@ -1,15 +1,16 @@
 package io.github.cloudintheking.tools.date;
 
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateFormatUtils;
 import org.apache.commons.lang3.time.FastDateFormat;
 
 import javax.validation.constraints.NotNull;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class DateUtil {
 
@@ -51,10 +52,98 @@ public class DateUtil {
     public static final FastDateFormat DEFAULT_FORMAT = FastDateFormat.getInstance(PATTERN_DEFAULT);
     public static final FastDateFormat DEFAULT_ON_SECOND_FORMAT = FastDateFormat.getInstance(PATTERN_DEFAULT_ON_SECOND);
     public static final FastDateFormat DEFAULT_ON_MINUTE_FORMAT = FastDateFormat.getInstance(PATTERN_DEFAULT_ON_MINUTE);
+    public static final FastDateFormat DEFAULT_ON_HOUR_FORMAT = FastDateFormat.getInstance(PATTERN_DEFAULT_ON_HOUR);
+    public static final FastDateFormat DEFAULT_ON_YEAR_FORMAT = FastDateFormat.getInstance(PATTERN_DEFAULT_ON_YEAR);
 
+    //按区域缓存的第一周最少天数, 周数计算与当前默认区域的Calendar.getInstance()一致
+    private static final ConcurrentMap<Locale, Integer> MINIMAL_DAYS_IN_FIRST_WEEK = new ConcurrentHashMap<>();
 
+
+    /**
+     * 格式化日期, 按当前默认时区; PATTERN_*常量在时区未变时直接使用上述预建实例, 其余走FastDateFormat缓存
+     *
+     * @param date    日期
+     * @param pattern 日期格式
+     * @return
+     */
     public static String format(@NotNull Date date, @NotNull String pattern) {
-        return DateFormatUtils.format(date, pattern);
+        return boundFormat(pattern, TimeZone.getDefault()).format(date);
+    }
+
+    /**
+     * 格式化纪元毫秒
+     *
+     * @param epochMillis 纪元毫秒
+     * @param pattern     日期格式
+     * @return
+     */
+    public static String format(long epochMillis, @NotNull String pattern) {
+        return boundFormat(pattern, TimeZone.getDefault()).format(epochMillis);
+    }
+
+    /**
+     * 格式化纪元毫秒并追加到builder, yyyy-MM-dd HH:mm:ss.SSS前缀族按定长直接写出, 批量导出时可复用同一个builder
+     *
+     * @param epochMillis 纪元毫秒
+     * @param pattern     日期格式
+     * @param builder     目标
+     * @return builder
+     */
+    public static StringBuilder format(long epochMillis, @NotNull String pattern, @NotNull StringBuilder builder) {
+        TimeZone zone = TimeZone.getDefault();
+        int width = DateFormatUtil.widthOf(pattern);
+        if (width > 0) {
+            return DateFormatUtil.append(epochMillis, zone, width, builder);
+        }
+        return boundFormat(pattern, zone).format(epochMillis, builder);
+    }
+
+    /**
+     * 格式化本地时间, 定长格式直接写出; 本地时间不含时区, 带时区标识的格式按UTC输出
+     *
+     * @param dateTime 本地时间
+     * @param pattern  日期格式
+     * @return
+     */
+    public static String format(@NotNull LocalDateTime dateTime, @NotNull String pattern) {
+        long localMillis = EpochDateUtil.toLocalMillis(dateTime);
+        int width = DateFormatUtil.widthOf(pattern);
+        if (width > 0) {
+            return DateFormatUtil.append(localMillis, EpochDateUtil.LOCAL_ZONE, width, new StringBuilder(width)).toString();
+        }
+        return FastDateFormat.getInstance(pattern, EpochDateUtil.LOCAL_ZONE).format(localMillis);
+    }
+
+    //PATTERN_*常量且时区与预建实例一致时返回预建实例, 否则按时区取FastDateFormat缓存实例
+    private static FastDateFormat boundFormat(String pattern, TimeZone zone) {
+        FastDateFormat format = prebuiltFormat(pattern);
+        return format != null && format.getTimeZone().equals(zone) ? format : FastDateFormat.getInstance(pattern, zone);
+    }
+
+    //PATTERN_*常量对应的预建实例, 非常量格式返回null
+    private static FastDateFormat prebuiltFormat(String pattern) {
+        switch (pattern) {
+            case PATTERN_ISO:
+                return ISO_FORMAT;
+            case PATTERN_ISO_ON_SECOND:
+                return ISO_ON_SECOND_FORMAT;
+            case PATTERN_ISO_ON_DATE:
+                return ISO_ON_DATE_FORMAT;
+            case PATTERN_ISO_ON_MONTH:
+                return ISO_ON_MONTH_FORMAT;
+            case PATTERN_DEFAULT:
+                return DEFAULT_FORMAT;
+            case PATTERN_DEFAULT_ON_SECOND:
+                return DEFAULT_ON_SECOND_FORMAT;
+            case PATTERN_DEFAULT_ON_MINUTE:
+                return DEFAULT_ON_MINUTE_FORMAT;
+            case PATTERN_DEFAULT_ON_HOUR:
+                return DEFAULT_ON_HOUR_FORMAT;
+            case PATTERN_DEFAULT_ON_YEAR:
+                return DEFAULT_ON_YEAR_FORMAT;
+            default:
+                return null;
+        }
     }
 
     /**
@@ -77,28 +166,24 @@ public class DateUtil {
      * @throws ParseException
      */
     public static Date pareDate(@NotNull String dateString) throws ParseException {
-        String source = dateString.trim();
-        if (StringUtils.isNotBlank(source)) {
-            if (source.matches(DATE_REGEX_YYYYMM)) {
-                return ISO_ON_MONTH_FORMAT.parse(source);
-            } else if (source.matches(DATE_REGEX_YYYYMMDD)) {
-                return ISO_ON_DATE_FORMAT.parse(source);
-            } else if (source.matches(DATE_REGEX_YYYYMMDDHHMM)) {
-                return DEFAULT_ON_MINUTE_FORMAT.parse(source);
-            } else if (source.matches(DATE_REGEX_YYYYMMDDHHMMSS)) {
-                return DEFAULT_ON_SECOND_FORMAT.parse(source);
-            } else if (source.matches(DATE_REGEX_YYYYMMDD_T_HHMMSS_Z)) {
-                return ISO_ON_SECOND_FORMAT.parse(source);
-            } else if (source.matches(DATE_REGEX_YYYYMMDD_T_HHMMSS_SSS_Z)) {
-                return ISO_FORMAT.parse(source);
-            } else if (source.matches(DATE_REGEX_SECOND_DOT_NANOSECOND)) {
-                String[] split = source.split(SYMBOL_DOT);
-                return Date.from(Instant.ofEpochSecond(Long.parseLong(split[0]), Long.parseLong(split[1])));
-            } else {
-                throw new IllegalArgumentException("Invalid date value '" + source + "'");
-            }
+        return pareDate(dateString, 0, dateString.length());
+    }
+
+    /**
+     * 从字符序列的指定区间自动识别格式并解析日期, 单次扫描, 不创建中间字符串
+     *
+     * @param source 字符序列, 如读取缓冲区
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 空白时返回null
+     */
+    public static Date pareDate(@NotNull CharSequence source, int offset, int length) {
+        int start = DateParseUtil.trimStart(source, offset, length);
+        int end = DateParseUtil.trimEnd(source, start, offset + length - start);
+        if (DateParseUtil.isBlank(source, start, end - start)) {
+            return null;
         }
-        return null;
+        return new Date(DateParseUtil.parse(source, start, end - start, TimeZone.getDefault()));
     }
 
     /**
@@ -108,10 +193,25 @@ public class DateUtil {
      * @return
      */
     public static Date getStartOfDay(@NotNull Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        setBeginTime(calendar);
-        return calendar.getTime();
+        return new Date(getStartOfDay(date.getTime()));
+    }
+
+    public static long getStartOfDay(long epochMillis) {
+        return EpochDateUtil.startOfDay(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getStartOfDay(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.startOfDay(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
+    }
+
+    /**
+     * 批量计算一天起始时间, result可以就是epochMillis(原地计算)
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果
+     */
+    public static void getStartOfDay(@NotNull long[] epochMillis, @NotNull long[] result) {
+        EpochDateUtil.startOfDay(epochMillis, result, TimeZone.getDefault());
     }
 
     /**
@@ -121,10 +221,15 @@ public class DateUtil {
      * @return
      */
     public static Date getEndOfDay(@NotNull Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        setEndTime(calendar);
-        return calendar.getTime();
+        return new Date(getEndOfDay(date.getTime()));
+    }
+
+    public static long getEndOfDay(long epochMillis) {
+        return EpochDateUtil.endOfDay(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getEndOfDay(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.endOfDay(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
     }
 
     /**
@@ -134,12 +239,21 @@ public class DateUtil {
      * @return
      */
     public static int getWeekOfYear(@NotNull Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
+        return getWeekOfYear(date.getTime());
+    }
+
+    public static int getWeekOfYear(long epochMillis) {
         //默认每周从周日开始,改为从周一开始
-        calendar.setFirstDayOfWeek(Calendar.MONDAY);
+        return EpochDateUtil.weekOfYear(epochMillis, TimeZone.getDefault(), minimalDaysInFirstWeek());
+    }
+
+    //当前默认区域的第一周最少天数
+    private static int minimalDaysInFirstWeek() {
+        return MINIMAL_DAYS_IN_FIRST_WEEK.computeIfAbsent(Locale.getDefault(), locale -> Calendar.getInstance(locale).getMinimalDaysInFirstWeek());
+    }
 
-        return calendar.get(Calendar.WEEK_OF_YEAR);
+    public static int getWeekOfYear(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.weekOfYear(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE, minimalDaysInFirstWeek());
     }
 
     /**
@@ -151,24 +265,111 @@ public class DateUtil {
      * @return
      */
     public static Date addDate(@NotNull Date date, @NotNull int field, @NotNull int amount) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.add(field, amount);
-        return calendar.getTime();
+        return new Date(addDate(date.getTime(), field, amount));
+    }
+
+    public static long addDate(long epochMillis, int field, int amount) {
+        return EpochDateUtil.add(epochMillis, TimeZone.getDefault(), field, amount);
+    }
+
+    /**
+     * 增加/减少时间, 字段同Calendar, 不足毫秒的部分保持不变
+     *
+     * @param dateTime
+     * @param field
+     * @param amount
+     * @return
+     */
+    public static LocalDateTime addDate(@NotNull LocalDateTime dateTime, int field, int amount) {
+        long localMillis = EpochDateUtil.add(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE, field, amount);
+        return EpochDateUtil.toLocalDateTime(localMillis).plusNanos(dateTime.getNano() % 1000000);
+    }
+
+    /**
+     * 相隔天数, 按本地日期相减, 夏令时切换不影响结果
+     *
+     * @param start
+     * @param end
+     * @return
+     */
+    public static long betweenDay(@NotNull Date start, @NotNull Date end) {
+        return betweenDay(start.getTime(), end.getTime());
+    }
+
+    public static long betweenDay(long start, long end) {
+        return EpochDateUtil.betweenDay(start, end, TimeZone.getDefault());
+    }
+
+    public static long betweenDay(@NotNull LocalDateTime start, @NotNull LocalDateTime end) {
+        return EpochDateUtil.betweenDay(EpochDateUtil.toLocalMillis(start), EpochDateUtil.toLocalMillis(end), EpochDateUtil.LOCAL_ZONE);
+    }
+
+    /**
+     * 相隔小时数, 截断到整点后按实际经过的时间计算
+     *
+     * @param start
+     * @param end
+     * @return
+     */
+    public static long betweenHour(@NotNull Date start, @NotNull Date end) {
+        return betweenHour(start.getTime(), end.getTime());
+    }
+
+    public static long betweenHour(long start, long end) {
+        return EpochDateUtil.betweenHour(start, end, TimeZone.getDefault());
+    }
+
+    public static long betweenHour(@NotNull LocalDateTime start, @NotNull LocalDateTime end) {
+        return EpochDateUtil.betweenHour(EpochDateUtil.toLocalMillis(start), EpochDateUtil.toLocalMillis(end), EpochDateUtil.LOCAL_ZONE);
     }
 
     /**
-     * 相隔天数
+     * 相隔周数, 以周一为一周起点
      *
      * @param start
      * @param end
      * @return
      */
-    public static long betweenDay(@NotNull Date start, @NotNull Date end) throws ParseException {
-        SimpleDateFormat sf = new SimpleDateFormat("yyyy-MM-dd");
-        Date nstart = sf.parse(sf.format(start));
-        Date nend = sf.parse(sf.format(end));
-        return (nend.getTime() - nstart.getTime()) / (60 * 60 * 24 * 1000);
+    public static long betweenWeek(@NotNull Date start, @NotNull Date end) {
+        return betweenWeek(start.getTime(), end.getTime());
+    }
+
+    public static long betweenWeek(long start, long end) {
+        return EpochDateUtil.betweenWeek(start, end, TimeZone.getDefault());
+    }
+
+    public static long betweenWeek(@NotNull LocalDateTime start, @NotNull LocalDateTime end) {
+        return EpochDateUtil.betweenWeek(EpochDateUtil.toLocalMillis(start), EpochDateUtil.toLocalMillis(end), EpochDateUtil.LOCAL_ZONE);
+    }
+
+    /**
+     * 相隔月数, 按所在年月相减
+     *
+     * @param start
+     * @param end
+     * @return
+     */
+    public static long betweenMonth(@NotNull Date start, @NotNull Date end) {
+        return betweenMonth(start.getTime(), end.getTime());
+    }
+
+    public static long betweenMonth(long start, long end) {
+        return EpochDateUtil.betweenMonth(start, end, TimeZone.getDefault());
+    }
+
+    public static long betweenMonth(@NotNull LocalDateTime start, @NotNull LocalDateTime end) {
+        return EpochDateUtil.betweenMonth(EpochDateUtil.toLocalMillis(start), EpochDateUtil.toLocalMillis(end), EpochDateUtil.LOCAL_ZONE);
+    }
+
+    /**
+     * 批量计算相隔天数, 按本地日期相减
+     *
+     * @param start  起始纪元毫秒
+     * @param end    结束纪元毫秒
+     * @param result 结果, 可以就是start或end
+     */
+    public static void betweenDay(@NotNull long[] start, @NotNull long[] end, @NotNull long[] result) {
+        EpochDateUtil.betweenDay(start, end, result, TimeZone.getDefault());
     }
 
     /**
@@ -182,11 +383,14 @@ public class DateUtil {
         if (day < 1 || day > 7) {
             throw new RuntimeException("请传入1到7之间的整数");
         }
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.setFirstDayOfWeek(Calendar.MONDAY);
-        calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek() + day - 1);
-        return calendar.getTime();
+        return new Date(EpochDateUtil.dayOfWeekBySpecialDay(date.getTime(), TimeZone.getDefault(), day));
+    }
+
+    public static LocalDateTime getDayOfWeekBySpecialDay(@NotNull LocalDateTime dateTime, int day) {
+        if (day < 1 || day > 7) {
+            throw new RuntimeException("请传入1到7之间的整数");
+        }
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.dayOfWeekBySpecialDay(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE, day));
     }
 
     /**
@@ -196,10 +400,25 @@ public class DateUtil {
      * @return
      */
     public static int getDayOfWeek(@NotNull Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.setFirstDayOfWeek(Calendar.MONDAY);
-        return calendar.get(Calendar.DAY_OF_WEEK);
+        return getDayOfWeek(date.getTime());
+    }
+
+    public static int getDayOfWeek(long epochMillis) {
+        return EpochDateUtil.dayOfWeek(epochMillis, TimeZone.getDefault());
+    }
+
+    public static int getDayOfWeek(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.dayOfWeek(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE);
+    }
+
+    /**
+     * 批量计算周几
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果
+     */
+    public static void getDayOfWeek(@NotNull long[] epochMillis, @NotNull int[] result) {
+        EpochDateUtil.dayOfWeek(epochMillis, result, TimeZone.getDefault());
     }
 
     /**
@@ -210,14 +429,15 @@ public class DateUtil {
      * @return
      */
     public static boolean isSameDay(@NotNull Date date1, @NotNull Date date2) {
-        Calendar calDateA = Calendar.getInstance();
-        calDateA.setTime(date1);
-        Calendar calDateB = Calendar.getInstance();
-        calDateB.setTime(date2);
-        return calDateA.get(Calendar.YEAR) == calDateB.get(Calendar.YEAR)
-                && calDateA.get(Calendar.MONTH) == calDateB.get(Calendar.MONTH)
-                && calDateA.get(Calendar.DAY_OF_MONTH) == calDateB
-                .get(Calendar.DAY_OF_MONTH);
+        return isSameDay(date1.getTime(), date2.getTime());
+    }
+
+    public static boolean isSameDay(long epochMillis1, long epochMillis2) {
+        return EpochDateUtil.isSameDay(epochMillis1, epochMillis2, TimeZone.getDefault());
+    }
+
+    public static boolean isSameDay(@NotNull LocalDateTime dateTime1, @NotNull LocalDateTime dateTime2) {
+        return EpochDateUtil.isSameDay(EpochDateUtil.toLocalMillis(dateTime1), EpochDateUtil.toLocalMillis(dateTime2), EpochDateUtil.LOCAL_ZONE);
     }
 
     /**
@@ -227,11 +447,25 @@ public class DateUtil {
      * @return
      */
     public static Date getFirstDayOfMonth(@NotNull Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.set(Calendar.DAY_OF_MONTH, 1);
-        setBeginTime(calendar);
-        return calendar.getTime();
+        return new Date(getFirstDayOfMonth(date.getTime()));
+    }
+
+    public static long getFirstDayOfMonth(long epochMillis) {
+        return EpochDateUtil.firstDayOfMonth(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getFirstDayOfMonth(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.firstDayOfMonth(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
+    }
+
+    /**
+     * 批量计算所属月份第一天时间, result可以就是epochMillis(原地计算)
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果
+     */
+    public static void getFirstDayOfMonth(@NotNull long[] epochMillis, @NotNull long[] result) {
+        EpochDateUtil.firstDayOfMonth(epochMillis, result, TimeZone.getDefault());
     }
 
     /**
@@ -241,14 +475,15 @@ public class DateUtil {
      * @return
      */
     public static Date getLastDayOfMonth(@NotNull Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        int last = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
-        calendar.set(Calendar.DAY_OF_MONTH, last);
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.SECOND, 59);
-        calendar.set(Calendar.MINUTE, 59);
-        return calendar.getTime();
+        return new Date(getLastDayOfMonth(date.getTime()));
+    }
+
+    public static long getLastDayOfMonth(long epochMillis) {
+        return EpochDateUtil.lastDayOfMonth(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getLastDayOfMonth(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.lastDayOfMonth(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
     }
 
     /**
@@ -258,12 +493,25 @@ public class DateUtil {
      * @return
      */
     public static Date getFirstDayOfWeek(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.setFirstDayOfWeek(Calendar.MONDAY);
-        calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
-        setBeginTime(calendar);
-        return calendar.getTime();
+        return new Date(getFirstDayOfWeek(date.getTime()));
+    }
+
+    public static long getFirstDayOfWeek(long epochMillis) {
+        return EpochDateUtil.firstDayOfWeek(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getFirstDayOfWeek(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.firstDayOfWeek(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
+    }
+
+    /**
+     * 批量计算所属周的第一天开始时间, result可以就是epochMillis(原地计算)
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果
+     */
+    public static void getFirstDayOfWeek(@NotNull long[] epochMillis, @NotNull long[] result) {
+        EpochDateUtil.firstDayOfWeek(epochMillis, result, TimeZone.getDefault());
     }
 
 
@@ -274,12 +522,15 @@ public class DateUtil {
      * @return
      */
     public static Date getLastDayOfWeek(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.setFirstDayOfWeek(Calendar.MONDAY);
-        calendar.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
-        setEndTime(calendar);
-        return calendar.getTime();
+        return new Date(getLastDayOfWeek(date.getTime()));
+    }
+
+    public static long getLastDayOfWeek(long epochMillis) {
+        return EpochDateUtil.lastDayOfWeek(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getLastDayOfWeek(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.lastDayOfWeek(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
     }
 
     /**
@@ -289,12 +540,15 @@ public class DateUtil {
      * @return
      */
     public static Date getFirstDayOfYear(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        int first = calendar.getActualMinimum(Calendar.DAY_OF_YEAR);
-        calendar.set(Calendar.DAY_OF_YEAR, first);
-        setBeginTime(calendar);
-        return calendar.getTime();
+        return new Date(getFirstDayOfYear(date.getTime()));
+    }
+
+    public static long getFirstDayOfYear(long epochMillis) {
+        return EpochDateUtil.firstDayOfYear(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getFirstDayOfYear(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.firstDayOfYear(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
     }
 
 
@@ -305,12 +559,15 @@ public class DateUtil {
      * @return
      */
     public static Date getLastDayOfYear(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        int last = calendar.getActualMaximum(Calendar.DAY_OF_YEAR);
-        calendar.set(Calendar.DAY_OF_YEAR, last);
-        setEndTime(calendar);
-        return calendar.getTime();
+        return new Date(getLastDayOfYear(date.getTime()));
+    }
+
+    public static long getLastDayOfYear(long epochMillis) {
+        return EpochDateUtil.lastDayOfYear(epochMillis, TimeZone.getDefault());
+    }
+
+    public static LocalDateTime getLastDayOfYear(@NotNull LocalDateTime dateTime) {
+        return EpochDateUtil.toLocalDateTime(EpochDateUtil.lastDayOfYear(EpochDateUtil.toLocalMillis(dateTime), EpochDateUtil.LOCAL_ZONE));
     }
 
     /**
@@ -319,27 +576,6 @@ public class DateUtil {
      * @return
      */
     public static Date getTomorrow() {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(new Date());
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.add(Calendar.DATE, 1);
-        return calendar.getTime();
-    }
-
-    private static void setEndTime(Calendar calendar) {
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.MINUTE, 59);
-        calendar.set(Calendar.SECOND, 59);
-        calendar.set(Calendar.MILLISECOND, 0);
-    }
-
-    private static void setBeginTime(Calendar calendar) {
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-
+        return new Date(EpochDateUtil.tomorrow(System.currentTimeMillis(), TimeZone.getDefault()));
     }
 }
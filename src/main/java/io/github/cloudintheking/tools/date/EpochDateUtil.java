@@ -0,0 +1,718 @@
+package io.github.cloudintheking.tools.date;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+//基于纪元日/纪元毫秒的纯算术日期计算, 不创建Calendar/Date; 时区换算规则与GregorianCalendar一致
+public final class EpochDateUtil {
+
+    public static final long MILLIS_PER_SECOND = 1000L;
+    public static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    public static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    public static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+    //一天结束时间 23:59:59.000
+    private static final long END_OF_DAY = MILLIS_PER_DAY - MILLIS_PER_SECOND;
+
+    //1970-01-01至0000-03-01的天数
+    private static final long DAYS_0000_TO_1970 = 719468L;
+    private static final long DAYS_PER_CYCLE = 146097L;
+
+    //零偏移只读时区, 本地毫秒按此时区计算即为不受夏令时影响的本地时间算术; 修改时抛出UnsupportedOperationException
+    static final TimeZone LOCAL_ZONE = OffsetTableZone.of(TimeZone.getTimeZone("UTC"));
+
+    private EpochDateUtil() {
+    }
+
+    /**
+     * 本地时间算术所用的零偏移时区, 如按LocalDateTime填充; 只读, 可在线程间共享
+     *
+     * @return
+     */
+    public static TimeZone localZone() {
+        return LOCAL_ZONE;
+    }
+
+    /**
+     * 公历年月日转纪元日(1970-01-01为0), 月、日超出范围时按Calendar宽松模式顺延
+     *
+     * @param year
+     * @param month 1-12
+     * @param day   1-31
+     * @return
+     */
+    public static long toEpochDay(int year, int month, int day) {
+        long y = year + Math.floorDiv(month - 1, 12);
+        int m = Math.floorMod(month - 1, 12) + 1;
+        if (m <= 2) {
+            y--;
+        }
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970 + (day - 1);
+    }
+
+    /**
+     * 纪元日转公历年月日
+     *
+     * @param epochDay
+     * @return 十进制打包的yyyyMMdd
+     */
+    public static int epochDayToYmd(long epochDay) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, DAYS_PER_CYCLE);
+        long dayOfEra = z - era * DAYS_PER_CYCLE;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * 纪元日对应周几, 周一为0, 周日为6
+     *
+     * @param epochDay
+     * @return
+     */
+    public static int isoDayOfWeekIndex(long epochDay) {
+        //1970-01-01为周四
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    /**
+     * 是否闰年
+     *
+     * @param year
+     * @return
+     */
+    public static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * 月份天数
+     *
+     * @param year
+     * @param month 1-12
+     * @return
+     */
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * UTC毫秒转本地毫秒(本地时间按UTC计的毫秒数)
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long toLocalMillis(long epochMillis, TimeZone zone) {
+        return epochMillis + zone.getOffset(epochMillis);
+    }
+
+    /**
+     * 本地毫秒转UTC毫秒, 夏令时跳过的时间按切换前偏移解释, 重复的时间取切换后偏移, 与Calendar宽松模式一致
+     *
+     * @param localMillis
+     * @param zone
+     * @return
+     */
+    public static long toEpochMillis(long localMillis, TimeZone zone) {
+        int before = zone.getOffset(localMillis - MILLIS_PER_DAY);
+        int after = zone.getOffset(localMillis + MILLIS_PER_DAY);
+        if (before == after) {
+            return localMillis - before;
+        }
+        //本地时间已到达切换后的墙上时间则使用切换后偏移
+        return zone.getOffset(localMillis - after) == after ? localMillis - after : localMillis - before;
+    }
+
+    /**
+     * 本地时间转本地毫秒, 不足毫秒的部分舍去
+     *
+     * @param dateTime
+     * @return
+     */
+    public static long toLocalMillis(LocalDateTime dateTime) {
+        return Math.addExact(Math.multiplyExact(dateTime.toEpochSecond(ZoneOffset.UTC), MILLIS_PER_SECOND), dateTime.getNano() / 1000000);
+    }
+
+    /**
+     * 本地毫秒转本地时间
+     *
+     * @param localMillis
+     * @return
+     */
+    public static LocalDateTime toLocalDateTime(long localMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(localMillis, MILLIS_PER_SECOND),
+                (int) Math.floorMod(localMillis, MILLIS_PER_SECOND) * 1000000, ZoneOffset.UTC);
+    }
+
+    /**
+     * 本地毫秒所在纪元日
+     *
+     * @param localMillis
+     * @return
+     */
+    public static long localEpochDay(long localMillis) {
+        return Math.floorDiv(localMillis, MILLIS_PER_DAY);
+    }
+
+    /**
+     * 一天起始时间 00:00:00.000
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long startOfDay(long epochMillis, TimeZone zone) {
+        long epochDay = localEpochDay(toLocalMillis(epochMillis, zone));
+        return toEpochMillis(epochDay * MILLIS_PER_DAY, zone);
+    }
+
+    /**
+     * 一天结束时间 23:59:59.000
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long endOfDay(long epochMillis, TimeZone zone) {
+        long epochDay = localEpochDay(toLocalMillis(epochMillis, zone));
+        return toEpochMillis(epochDay * MILLIS_PER_DAY + END_OF_DAY, zone);
+    }
+
+    /**
+     * 所属月份第一天开始时间
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long firstDayOfMonth(long epochMillis, TimeZone zone) {
+        int ymd = epochDayToYmd(localEpochDay(toLocalMillis(epochMillis, zone)));
+        return toEpochMillis(toEpochDay(ymd / 10000, ymd / 100 % 100, 1) * MILLIS_PER_DAY, zone);
+    }
+
+    /**
+     * 所属月份最后一天 23:59:59, 毫秒保持不变(与DateUtil.getLastDayOfMonth一致)
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long lastDayOfMonth(long epochMillis, TimeZone zone) {
+        long localMillis = toLocalMillis(epochMillis, zone);
+        int ymd = epochDayToYmd(localEpochDay(localMillis));
+        int year = ymd / 10000;
+        int month = ymd / 100 % 100;
+        long lastDay = toEpochDay(year, month, lengthOfMonth(year, month));
+        return toEpochMillis(lastDay * MILLIS_PER_DAY + END_OF_DAY + Math.floorMod(localMillis, MILLIS_PER_SECOND), zone);
+    }
+
+    /**
+     * 所属周(周一为起点)第一天开始时间
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long firstDayOfWeek(long epochMillis, TimeZone zone) {
+        return firstDayOfWeek(epochMillis, zone, Calendar.MONDAY);
+    }
+
+    /**
+     * 所属周第一天开始时间
+     *
+     * @param epochMillis
+     * @param zone
+     * @param firstDayOfWeek 一周起点, 同Calendar.getFirstDayOfWeek()
+     * @return
+     */
+    public static long firstDayOfWeek(long epochMillis, TimeZone zone, int firstDayOfWeek) {
+        long epochDay = localEpochDay(toLocalMillis(epochMillis, zone));
+        return toEpochMillis((epochDay - dayOfWeekIndex(epochDay, firstDayOfWeek)) * MILLIS_PER_DAY, zone);
+    }
+
+    /**
+     * 所属周(周一为起点)最后一天结束时间
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long lastDayOfWeek(long epochMillis, TimeZone zone) {
+        return lastDayOfWeek(epochMillis, zone, Calendar.MONDAY);
+    }
+
+    /**
+     * 所属周最后一天结束时间
+     *
+     * @param epochMillis
+     * @param zone
+     * @param firstDayOfWeek 一周起点, 同Calendar.getFirstDayOfWeek()
+     * @return
+     */
+    public static long lastDayOfWeek(long epochMillis, TimeZone zone, int firstDayOfWeek) {
+        long epochDay = localEpochDay(toLocalMillis(epochMillis, zone));
+        return toEpochMillis((epochDay - dayOfWeekIndex(epochDay, firstDayOfWeek) + 6) * MILLIS_PER_DAY + END_OF_DAY, zone);
+    }
+
+    /**
+     * 纪元日在所属周内的下标, 一周起点为0
+     *
+     * @param epochDay
+     * @param firstDayOfWeek 一周起点, 同Calendar.getFirstDayOfWeek()
+     * @return
+     */
+    public static int dayOfWeekIndex(long epochDay, int firstDayOfWeek) {
+        if (firstDayOfWeek < Calendar.SUNDAY || firstDayOfWeek > Calendar.SATURDAY) {
+            throw new IllegalArgumentException("Invalid firstDayOfWeek " + firstDayOfWeek);
+        }
+        //Calendar周日为1, 换算为周一为0的下标
+        return Math.floorMod(isoDayOfWeekIndex(epochDay) - (firstDayOfWeek + 5) % 7, 7);
+    }
+
+    /**
+     * 所属年第一天开始时间
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long firstDayOfYear(long epochMillis, TimeZone zone) {
+        int ymd = epochDayToYmd(localEpochDay(toLocalMillis(epochMillis, zone)));
+        return toEpochMillis(toEpochDay(ymd / 10000, 1, 1) * MILLIS_PER_DAY, zone);
+    }
+
+    /**
+     * 所属年最后一天结束时间
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static long lastDayOfYear(long epochMillis, TimeZone zone) {
+        int ymd = epochDayToYmd(localEpochDay(toLocalMillis(epochMillis, zone)));
+        return toEpochMillis(toEpochDay(ymd / 10000, 12, 31) * MILLIS_PER_DAY + END_OF_DAY, zone);
+    }
+
+    /**
+     * 所属周的周几, 时间保持不变
+     *
+     * @param epochMillis
+     * @param zone
+     * @param day         周几, 1-7
+     * @return
+     */
+    public static long dayOfWeekBySpecialDay(long epochMillis, TimeZone zone, int day) {
+        long localMillis = toLocalMillis(epochMillis, zone);
+        long epochDay = localEpochDay(localMillis);
+        long target = epochDay - isoDayOfWeekIndex(epochDay) + day - 1;
+        return toEpochMillis(target * MILLIS_PER_DAY + Math.floorMod(localMillis, MILLIS_PER_DAY), zone);
+    }
+
+    /**
+     * 周几, 取值同Calendar.DAY_OF_WEEK(周日为1)
+     *
+     * @param epochMillis
+     * @param zone
+     * @return
+     */
+    public static int dayOfWeek(long epochMillis, TimeZone zone) {
+        return (isoDayOfWeekIndex(localEpochDay(toLocalMillis(epochMillis, zone))) + 1) % 7 + 1;
+    }
+
+    /**
+     * 周数, 以周一为一周起点, 同Calendar.WEEK_OF_YEAR
+     *
+     * @param epochMillis
+     * @param zone
+     * @param minimalDaysInFirstWeek 第一周最少天数, 同Calendar.getMinimalDaysInFirstWeek()
+     * @return
+     */
+    public static int weekOfYear(long epochMillis, TimeZone zone, int minimalDaysInFirstWeek) {
+        return weekOfYear(epochMillis, zone, Calendar.MONDAY, minimalDaysInFirstWeek);
+    }
+
+    /**
+     * 周数, 同Calendar.WEEK_OF_YEAR
+     *
+     * @param epochMillis
+     * @param zone
+     * @param firstDayOfWeek         一周起点, 同Calendar.getFirstDayOfWeek()
+     * @param minimalDaysInFirstWeek 第一周最少天数, 同Calendar.getMinimalDaysInFirstWeek()
+     * @return
+     */
+    public static int weekOfYear(long epochMillis, TimeZone zone, int firstDayOfWeek, int minimalDaysInFirstWeek) {
+        long epochDay = localEpochDay(toLocalMillis(epochMillis, zone));
+        int year = epochDayToYmd(epochDay) / 10000;
+        long firstWeekStart = firstWeekStart(year, firstDayOfWeek, minimalDaysInFirstWeek);
+        if (epochDay < firstWeekStart) {
+            //属于上一年的最后一周
+            return (int) ((epochDay - firstWeekStart(year - 1, firstDayOfWeek, minimalDaysInFirstWeek)) / 7) + 1;
+        }
+        if (epochDay >= firstWeekStart(year + 1, firstDayOfWeek, minimalDaysInFirstWeek)) {
+            return 1;
+        }
+        return (int) ((epochDay - firstWeekStart) / 7) + 1;
+    }
+
+    //第一周起点的纪元日
+    private static long firstWeekStart(int year, int firstDayOfWeek, int minimalDaysInFirstWeek) {
+        long firstDay = toEpochDay(year, 1, 1);
+        int offset = dayOfWeekIndex(firstDay, firstDayOfWeek);
+        long weekStart = firstDay - offset;
+        return 7 - offset >= minimalDaysInFirstWeek ? weekStart : weekStart + 7;
+    }
+
+    /**
+     * 是否同一天
+     *
+     * @param epochMillis1
+     * @param epochMillis2
+     * @param zone
+     * @return
+     */
+    public static boolean isSameDay(long epochMillis1, long epochMillis2, TimeZone zone) {
+        return localEpochDay(toLocalMillis(epochMillis1, zone)) == localEpochDay(toLocalMillis(epochMillis2, zone));
+    }
+
+    /**
+     * 相隔天数, 按本地日期相减, 不受夏令时当天23/25小时影响
+     *
+     * @param start 起始纪元毫秒
+     * @param end   结束纪元毫秒
+     * @param zone
+     * @return end早于start时为负数
+     */
+    public static long betweenDay(long start, long end, TimeZone zone) {
+        return localEpochDay(toLocalMillis(end, zone)) - localEpochDay(toLocalMillis(start, zone));
+    }
+
+    /**
+     * 相隔小时数, 两个时间截断到所在整点后按实际经过的时间计算, 夏令时切换当天与挂钟时间差相比会多/少一小时
+     *
+     * @param start 起始纪元毫秒
+     * @param end   结束纪元毫秒
+     * @param zone
+     * @return end早于start时为负数
+     */
+    public static long betweenHour(long start, long end, TimeZone zone) {
+        return (startOfHour(end, zone) - startOfHour(start, zone)) / MILLIS_PER_HOUR;
+    }
+
+    //所在整点, 偏移不变时直接回退分秒, 否则(如半小时夏令时切换)按本地整点换算
+    private static long startOfHour(long epochMillis, TimeZone zone) {
+        int offset = zone.getOffset(epochMillis);
+        long localMillis = epochMillis + offset;
+        long startOfHour = epochMillis - Math.floorMod(localMillis, MILLIS_PER_HOUR);
+        if (zone.getOffset(startOfHour) == offset) {
+            return startOfHour;
+        }
+        return toEpochMillis(localMillis - Math.floorMod(localMillis, MILLIS_PER_HOUR), zone);
+    }
+
+    /**
+     * 相隔周数, 以周一为一周起点, 按所在周的周一相减
+     *
+     * @param start 起始纪元毫秒
+     * @param end   结束纪元毫秒
+     * @param zone
+     * @return end早于start时为负数
+     */
+    public static long betweenWeek(long start, long end, TimeZone zone) {
+        long startDay = localEpochDay(toLocalMillis(start, zone));
+        long endDay = localEpochDay(toLocalMillis(end, zone));
+        return ((endDay - isoDayOfWeekIndex(endDay)) - (startDay - isoDayOfWeekIndex(startDay))) / 7;
+    }
+
+    /**
+     * 相隔月数, 按所在年月相减(如1月31日到2月1日为1)
+     *
+     * @param start 起始纪元毫秒
+     * @param end   结束纪元毫秒
+     * @param zone
+     * @return end早于start时为负数
+     */
+    public static long betweenMonth(long start, long end, TimeZone zone) {
+        int startYmd = epochDayToYmd(localEpochDay(toLocalMillis(start, zone)));
+        int endYmd = epochDayToYmd(localEpochDay(toLocalMillis(end, zone)));
+        return (endYmd / 10000 - startYmd / 10000) * 12L + (endYmd / 100 % 100 - startYmd / 100 % 100);
+    }
+
+    /**
+     * 增加/减少时间, 语义同Calendar.add; 不支持的字段退回Calendar计算
+     *
+     * @param epochMillis
+     * @param zone
+     * @param field       Calendar字段
+     * @param amount
+     * @return
+     */
+    public static long add(long epochMillis, TimeZone zone, int field, int amount) {
+        switch (field) {
+            case Calendar.MILLISECOND:
+                return epochMillis + amount;
+            case Calendar.SECOND:
+                return epochMillis + amount * MILLIS_PER_SECOND;
+            case Calendar.MINUTE:
+                return epochMillis + amount * MILLIS_PER_MINUTE;
+            case Calendar.HOUR:
+            case Calendar.HOUR_OF_DAY:
+                return epochMillis + amount * MILLIS_PER_HOUR;
+            case Calendar.AM_PM:
+                return epochMillis + amount * 12 * MILLIS_PER_HOUR;
+            case Calendar.DAY_OF_MONTH:
+            case Calendar.DAY_OF_YEAR:
+            case Calendar.DAY_OF_WEEK:
+                return addDays(epochMillis, zone, amount);
+            case Calendar.WEEK_OF_YEAR:
+            case Calendar.WEEK_OF_MONTH:
+            case Calendar.DAY_OF_WEEK_IN_MONTH:
+                return addDays(epochMillis, zone, amount * 7L);
+            case Calendar.MONTH:
+                return addMonths(epochMillis, zone, amount);
+            case Calendar.YEAR:
+                return addMonths(epochMillis, zone, amount * 12L);
+            default:
+                Calendar calendar = Calendar.getInstance(zone);
+                calendar.setTimeInMillis(epochMillis);
+                calendar.add(field, amount);
+                return calendar.getTimeInMillis();
+        }
+    }
+
+    /**
+     * 增加天数, 保持墙上时间; 目标时间因夏令时不存在时与Calendar.add一样保持原偏移
+     *
+     * @param epochMillis
+     * @param zone
+     * @param days
+     * @return
+     */
+    public static long addDays(long epochMillis, TimeZone zone, long days) {
+        int offset = zone.getOffset(epochMillis);
+        long localMillis = epochMillis + offset + days * MILLIS_PER_DAY;
+        long result = localMillis - offset;
+        int diff = offset - zone.getOffset(result);
+        if (diff != 0) {
+            long adjusted = result + diff;
+            if (localEpochDay(toLocalMillis(adjusted, zone)) == localEpochDay(localMillis)) {
+                result = adjusted;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 增加月数, 日期超出目标月份天数时取月末
+     *
+     * @param epochMillis
+     * @param zone
+     * @param months
+     * @return
+     */
+    public static long addMonths(long epochMillis, TimeZone zone, long months) {
+        long localMillis = toLocalMillis(epochMillis, zone);
+        long epochDay = localEpochDay(localMillis);
+        int ymd = epochDayToYmd(epochDay);
+        long totalMonths = (ymd / 10000) * 12L + (ymd / 100 % 100 - 1) + months;
+        int year = (int) Math.floorDiv(totalMonths, 12L);
+        int month = (int) Math.floorMod(totalMonths, 12L) + 1;
+        int day = Math.min(ymd % 100, lengthOfMonth(year, month));
+        return toEpochMillis(toEpochDay(year, month, day) * MILLIS_PER_DAY + Math.floorMod(localMillis, MILLIS_PER_DAY), zone);
+    }
+
+    /**
+     * 明天零点, 毫秒保持不变(与DateUtil.getTomorrow一致)
+     *
+     * @param epochMillis 当前时间
+     * @param zone
+     * @return
+     */
+    public static long tomorrow(long epochMillis, TimeZone zone) {
+        long localMillis = toLocalMillis(epochMillis, zone);
+        long midnight = toEpochMillis(localEpochDay(localMillis) * MILLIS_PER_DAY + Math.floorMod(localMillis, MILLIS_PER_SECOND), zone);
+        return addDays(midnight, zone, 1);
+    }
+
+    /**
+     * 批量计算一天起始时间, 结果数组可以就是输入数组(原地计算); 连续落在同一天的时间直接复用上一次结果
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果, 长度不小于输入
+     * @param zone
+     */
+    public static void startOfDay(long[] epochMillis, long[] result, TimeZone zone) {
+        checkBulkLength(epochMillis.length, result.length);
+        long from = 1;
+        long to = 0;
+        long value = 0;
+        for (int i = 0; i < epochMillis.length; i++) {
+            long millis = epochMillis[i];
+            if (millis < from || millis >= to) {
+                long epochDay = localEpochDay(toLocalMillis(millis, zone));
+                value = toEpochMillis(epochDay * MILLIS_PER_DAY, zone);
+                to = toEpochMillis((epochDay + 1) * MILLIS_PER_DAY, zone);
+                from = cacheFrom(value, to, zone);
+            }
+            result[i] = value;
+        }
+    }
+
+    /**
+     * 批量计算所属月份第一天开始时间, 结果数组可以就是输入数组
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果, 长度不小于输入
+     * @param zone
+     */
+    public static void firstDayOfMonth(long[] epochMillis, long[] result, TimeZone zone) {
+        checkBulkLength(epochMillis.length, result.length);
+        long from = 1;
+        long to = 0;
+        long firstDay = 1;
+        long nextFirstDay = 0;
+        long value = 0;
+        for (int i = 0; i < epochMillis.length; i++) {
+            long millis = epochMillis[i];
+            if (millis < from || millis >= to) {
+                long epochDay = localEpochDay(toLocalMillis(millis, zone));
+                if (epochDay < firstDay || epochDay >= nextFirstDay) {
+                    int ymd = epochDayToYmd(epochDay);
+                    firstDay = epochDay - ymd % 100 + 1;
+                    nextFirstDay = toEpochDay(ymd / 10000, ymd / 100 % 100 + 1, 1);
+                    value = toEpochMillis(firstDay * MILLIS_PER_DAY, zone);
+                }
+                long dayStart = toEpochMillis(epochDay * MILLIS_PER_DAY, zone);
+                to = toEpochMillis((epochDay + 1) * MILLIS_PER_DAY, zone);
+                from = cacheFrom(dayStart, to, zone);
+            }
+            result[i] = value;
+        }
+    }
+
+    /**
+     * 批量计算所属周(周一为起点)第一天开始时间, 结果数组可以就是输入数组
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果, 长度不小于输入
+     * @param zone
+     */
+    public static void firstDayOfWeek(long[] epochMillis, long[] result, TimeZone zone) {
+        checkBulkLength(epochMillis.length, result.length);
+        long from = 1;
+        long to = 0;
+        long monday = 1;
+        long value = 0;
+        for (int i = 0; i < epochMillis.length; i++) {
+            long millis = epochMillis[i];
+            if (millis < from || millis >= to) {
+                long epochDay = localEpochDay(toLocalMillis(millis, zone));
+                if (epochDay < monday || epochDay >= monday + 7) {
+                    monday = epochDay - isoDayOfWeekIndex(epochDay);
+                    value = toEpochMillis(monday * MILLIS_PER_DAY, zone);
+                }
+                long dayStart = toEpochMillis(epochDay * MILLIS_PER_DAY, zone);
+                to = toEpochMillis((epochDay + 1) * MILLIS_PER_DAY, zone);
+                from = cacheFrom(dayStart, to, zone);
+            }
+            result[i] = value;
+        }
+    }
+
+    /**
+     * 批量计算周几, 取值同Calendar.DAY_OF_WEEK(周日为1)
+     *
+     * @param epochMillis 纪元毫秒
+     * @param result      结果, 长度不小于输入
+     * @param zone
+     */
+    public static void dayOfWeek(long[] epochMillis, int[] result, TimeZone zone) {
+        checkBulkLength(epochMillis.length, result.length);
+        long from = 1;
+        long to = 0;
+        int value = 0;
+        for (int i = 0; i < epochMillis.length; i++) {
+            long millis = epochMillis[i];
+            if (millis < from || millis >= to) {
+                long epochDay = localEpochDay(toLocalMillis(millis, zone));
+                value = (isoDayOfWeekIndex(epochDay) + 1) % 7 + 1;
+                long dayStart = toEpochMillis(epochDay * MILLIS_PER_DAY, zone);
+                to = toEpochMillis((epochDay + 1) * MILLIS_PER_DAY, zone);
+                from = cacheFrom(dayStart, to, zone);
+            }
+            result[i] = value;
+        }
+    }
+
+    /**
+     * 批量计算相隔天数(按本地日期相减, 不受夏令时影响), result[i] = end[i]所在日 - start[i]所在日
+     *
+     * @param start  起始纪元毫秒
+     * @param end    结束纪元毫秒, 长度与起始相同
+     * @param result 结果, 可以就是start或end数组
+     * @param zone
+     */
+    public static void betweenDay(long[] start, long[] end, long[] result, TimeZone zone) {
+        if (start.length != end.length) {
+            throw new IllegalArgumentException("start and end should have the same length!");
+        }
+        checkBulkLength(start.length, result.length);
+        long startFrom = 1;
+        long startTo = 0;
+        long startDay = 0;
+        long endFrom = 1;
+        long endTo = 0;
+        long endDay = 0;
+        for (int i = 0; i < start.length; i++) {
+            long startMillis = start[i];
+            long endMillis = end[i];
+            if (startMillis < startFrom || startMillis >= startTo) {
+                startDay = localEpochDay(toLocalMillis(startMillis, zone));
+                long dayStart = toEpochMillis(startDay * MILLIS_PER_DAY, zone);
+                startTo = toEpochMillis((startDay + 1) * MILLIS_PER_DAY, zone);
+                startFrom = cacheFrom(dayStart, startTo, zone);
+            }
+            if (endMillis < endFrom || endMillis >= endTo) {
+                endDay = localEpochDay(toLocalMillis(endMillis, zone));
+                long dayStart = toEpochMillis(endDay * MILLIS_PER_DAY, zone);
+                endTo = toEpochMillis((endDay + 1) * MILLIS_PER_DAY, zone);
+                endFrom = cacheFrom(dayStart, endTo, zone);
+            }
+            result[i] = endDay - startDay;
+        }
+    }
+
+    /**
+     * 批量计算的缓存区间起点: 当天恰好24小时且首尾偏移相同时, 区间[dayStart, dayEnd)内每个时间都属于同一本地日, 可复用结果;
+     * 当天有夏令时切换(包括零点切换、重复的零点按切换后偏移解释)时返回dayEnd, 即不缓存
+     */
+    private static long cacheFrom(long dayStart, long dayEnd, TimeZone zone) {
+        return dayEnd - dayStart == MILLIS_PER_DAY && zone.getOffset(dayStart) == zone.getOffset(dayEnd - 1) ? dayStart : dayEnd;
+    }
+
+    private static void checkBulkLength(int length, int resultLength) {
+        if (resultLength < length) {
+            throw new IllegalArgumentException("result length " + resultLength + " is less than " + length);
+        }
+    }
+}
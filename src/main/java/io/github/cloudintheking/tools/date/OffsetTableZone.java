@@ -0,0 +1,152 @@
+package io.github.cloudintheking.tools.date;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 按预先展开的偏移切换表计算偏移的只读时区: 表内区间(1900~2100年)按分桶下标查找, 区间外交给原时区;
+ * 创建后不可修改, 可在线程间共享
+ */
+final class OffsetTableZone extends TimeZone {
+
+    private static final long serialVersionUID = 1L;
+
+    //1900-01-01T00:00Z
+    private static final long TABLE_FROM = -2208988800000L;
+    //2100-01-01T00:00Z
+    private static final long TABLE_TO = 4102444800000L;
+
+    //按2^35毫秒(约397天)分桶, 每桶记录桶起点所在的切换下标, 查找时至多向后比较几次
+    private static final int BUCKET_SHIFT = 35;
+
+    private final TimeZone delegate;
+    //切换时刻, 升序; offsets[i]为transitions[i]起生效的偏移, offsets[0]为表起点的偏移
+    private final long[] transitions;
+    private final int[] offsets;
+    private final int[] buckets;
+
+    private OffsetTableZone(TimeZone delegate, long[] transitions, int[] offsets) {
+        super.setID(delegate.getID());
+        this.delegate = delegate;
+        this.transitions = transitions;
+        this.offsets = offsets;
+        this.buckets = new int[(int) ((TABLE_TO - TABLE_FROM) >>> BUCKET_SHIFT) + 1];
+        int index = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            long bucketStart = TABLE_FROM + ((long) bucket << BUCKET_SHIFT);
+            while (index + 1 < transitions.length && transitions[index + 1] <= bucketStart) {
+                index++;
+            }
+            buckets[bucket] = index;
+        }
+    }
+
+    /**
+     * 为时区生成偏移切换表
+     *
+     * @param zone 时区
+     * @return 不是标准时区ID(如自定义SimpleTimeZone)时返回原时区的副本
+     */
+    static TimeZone of(TimeZone zone) {
+        TimeZone delegate = (TimeZone) zone.clone();
+        if (delegate instanceof OffsetTableZone) {
+            return delegate;
+        }
+        ZoneRules rules;
+        try {
+            rules = ZoneId.of(delegate.getID()).getRules();
+        } catch (RuntimeException e) {
+            return delegate;
+        }
+        if (!TimeZone.getTimeZone(delegate.getID()).hasSameRules(delegate)) {
+            return delegate;
+        }
+        long[] transitions = new long[64];
+        int[] offsets = new int[64];
+        transitions[0] = TABLE_FROM;
+        offsets[0] = delegate.getOffset(TABLE_FROM);
+        int count = 1;
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(TABLE_FROM));
+        while (transition != null && transition.toEpochSecond() * 1000 < TABLE_TO) {
+            if (count == transitions.length) {
+                transitions = Arrays.copyOf(transitions, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            long millis = transition.toEpochSecond() * 1000;
+            transitions[count] = millis;
+            offsets[count] = delegate.getOffset(millis);
+            count++;
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        return new OffsetTableZone(delegate, Arrays.copyOf(transitions, count), Arrays.copyOf(offsets, count));
+    }
+
+    @Override
+    public int getOffset(long date) {
+        if (date < TABLE_FROM || date >= TABLE_TO) {
+            return delegate.getOffset(date);
+        }
+        int index = buckets[(int) ((date - TABLE_FROM) >>> BUCKET_SHIFT)];
+        while (index + 1 < transitions.length && transitions[index + 1] <= date) {
+            index++;
+        }
+        return offsets[index];
+    }
+
+    @Override
+    public int getOffset(int era, int year, int month, int day, int dayOfWeek, int milliseconds) {
+        return delegate.getOffset(era, year, month, day, dayOfWeek, milliseconds);
+    }
+
+    @Override
+    public void setRawOffset(int offsetMillis) {
+        throw new UnsupportedOperationException("OffsetTableZone is immutable");
+    }
+
+    @Override
+    public void setID(String id) {
+        throw new UnsupportedOperationException("OffsetTableZone is immutable");
+    }
+
+    @Override
+    public int getRawOffset() {
+        return delegate.getRawOffset();
+    }
+
+    @Override
+    public int getDSTSavings() {
+        return delegate.getDSTSavings();
+    }
+
+    @Override
+    public boolean useDaylightTime() {
+        return delegate.useDaylightTime();
+    }
+
+    @Override
+    public boolean observesDaylightTime() {
+        return delegate.observesDaylightTime();
+    }
+
+    @Override
+    public boolean inDaylightTime(Date date) {
+        return delegate.inDaylightTime(date);
+    }
+
+    @Override
+    public boolean hasSameRules(TimeZone other) {
+        return delegate.hasSameRules(other instanceof OffsetTableZone ? ((OffsetTableZone) other).delegate : other);
+    }
+
+    /**
+     * 原时区的副本
+     */
+    TimeZone getDelegate() {
+        return (TimeZone) delegate.clone();
+    }
+}
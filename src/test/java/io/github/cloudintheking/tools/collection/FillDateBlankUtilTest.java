@@ -1,17 +1,47 @@
 package io.github.cloudintheking.tools.collection;
 
+import io.github.cloudintheking.tools.date.DateParseUtil;
+import io.github.cloudintheking.tools.date.DateUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FillDateBlankUtilTest {
 
+    //随机数据的固定种子, 失败时可复现
+    private static final long RANDOM_SEED = 20211201L;
+
     public static class TestFillBlank extends FillDateBlankUtil.FillBlankBase<TestFillBlank> {
         private Integer sum;
 
@@ -24,6 +54,9 @@ class FillDateBlankUtilTest {
         }
     }
 
+    public static class SubTestFillBlank extends TestFillBlank {
+    }
+
     @BeforeEach
     void setUp() {
     }
@@ -71,7 +104,693 @@ class FillDateBlankUtilTest {
         }
     }
 
+    @DisplayName("日期字段按打包日期键存放")
+    @Test
+    void fillBlankBaseDateKey() {
+        TestFillBlank testFillBlank = new TestFillBlank();
+        testFillBlank.setYear(2021);
+        testFillBlank.setMonth(12);
+        testFillBlank.setDay(31);
+        testFillBlank.setHour(23);
+        testFillBlank.setMinute(59);
+        assertEquals(FillDateBlankUtil.packDateKey(2021, 12, 31, 23, 59), testFillBlank.dateKey());
+        assertEquals("2021-12-31 23:59", testFillBlank.getDateStr());
+        testFillBlank.setDay(1);
+        testFillBlank.setYear(-1);
+        assertEquals(-1, testFillBlank.getYear());
+        assertEquals(12, testFillBlank.getMonth());
+        assertEquals(1, testFillBlank.getDay());
+        assertEquals(23, testFillBlank.getHour());
+        assertEquals(59, testFillBlank.getMinute());
+        testFillBlank.dateKey(FillDateBlankUtil.packDateKey(2022, 1, 2, 3, 4));
+        assertEquals("2022-01-02 03:04", testFillBlank.getDateStr());
+        assertEquals(4, testFillBlank.getMinute());
+        assertThrows(IllegalArgumentException.class, () -> testFillBlank.setMonth(256));
+        assertThrows(IllegalArgumentException.class, () -> testFillBlank.setHour(-1));
+        assertEquals(FillDateBlankUtil.packDateKey(2022, 1, 2, 3, 4), testFillBlank.dateKey());
+        //只拒绝无法打包的值, 不校验日历合法性
+        testFillBlank.setMonth(13);
+        assertEquals(13, testFillBlank.getMonth());
+    }
+
+    @DisplayName("填充空白结果校验")
+    @Test
+    void fillBlankEverySlotOnce() throws Exception {
+        List<TestFillBlank> testFillBlanks = new ArrayList<>();
+        testFillBlanks.add(newFillBlank(2021, 12, 12, 0, 5));
+        testFillBlanks.add(newFillBlank(2021, 12, 2, 0, 3));
+        testFillBlanks.add(newFillBlank(2021, 11, 23, 0, 7));
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.NOVEMBER, 20);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 31);
+        Date end = calendar.getTime();
+        List<TestFillBlank> result = FillDateBlankUtil.fillBlank(testFillBlanks, FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end, (fillBlankBase) -> {
+            ((TestFillBlank) fillBlankBase).setSum(0);
+        });
+        assertEquals(42, result.size());
+        assertEquals(3, testFillBlanks.size());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).getDateStr().compareTo(result.get(i).getDateStr()) < 0);
+        }
+        assertEquals(7, result.get(3).getSum());
+        assertEquals(3, result.get(12).getSum());
+        assertEquals(5, result.get(22).getSum());
+        assertEquals(0, result.get(41).getSum());
+    }
+
+    @DisplayName("有序输入直接归并")
+    @Test
+    void sortByDateKey() {
+        List<TestFillBlank> sorted = new ArrayList<>();
+        sorted.add(newFillBlank(2021, 11, 23, 0, 1));
+        sorted.add(newFillBlank(2021, 12, 2, 0, 2));
+        sorted.add(newFillBlank(2021, 12, 2, 5, 3));
+        assertSame(sorted, FillDateBlankUtil.sortByDateKey(sorted));
+        List<TestFillBlank> unsorted = new ArrayList<>(sorted);
+        unsorted.add(0, unsorted.remove(2));
+        List<TestFillBlank> result = FillDateBlankUtil.sortByDateKey(unsorted);
+        assertEquals(sorted, result);
+    }
+
+    @DisplayName("惰性流式填充")
+    @Test
+    void fillBlankStream() throws Exception {
+        List<TestFillBlank> testFillBlanks = new ArrayList<>();
+        testFillBlanks.add(newFillBlank(2021, 12, 1, 3, 3));
+        testFillBlanks.add(newFillBlank(2021, 12, 1, 7, 7));
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.DECEMBER, 1);
+        Date start = calendar.getTime();
+        calendar.set(Calendar.HOUR_OF_DAY, 23);
+        Date end = calendar.getTime();
+        FillDateBlankUtil.FillBlankGenFunc genFunc = (fillBlankBase) -> ((TestFillBlank) fillBlankBase).setSum(0);
+        List<TestFillBlank> expected = FillDateBlankUtil.fillBlank(new ArrayList<>(testFillBlanks), FillDateBlankUtil.FillBlankTypeEnum.HOUR, start, end, genFunc);
+        List<TestFillBlank> streamed = FillDateBlankUtil.fillBlankStream(testFillBlanks.stream(), FillDateBlankUtil.FillBlankTypeEnum.HOUR, start, end, genFunc)
+                .collect(Collectors.toList());
+        assertEquals(24, streamed.size());
+        for (int i = 0; i < streamed.size(); i++) {
+            assertEquals(expected.get(i).getDateStr(), streamed.get(i).getDateStr());
+            assertEquals(i == 3 || i == 7 ? i : 0, streamed.get(i).getSum());
+        }
+        Collections.reverse(testFillBlanks);
+        assertThrows(IllegalStateException.class, () -> FillDateBlankUtil.fillBlankStream(testFillBlanks.stream(),
+                FillDateBlankUtil.FillBlankTypeEnum.HOUR, start, end, genFunc).count());
+    }
+
+    @DisplayName("按分钟步长与按周填充")
+    @Test
+    void fillBlankStepAndWeek() throws Exception {
+        FillDateBlankUtil.FillBlankGenFunc genFunc = (fillBlankBase) -> ((TestFillBlank) fillBlankBase).setSum(0);
+        List<TestFillBlank> minutes = new ArrayList<>();
+        TestFillBlank at1007 = newFillBlank(2021, 12, 1, 10, 1);
+        at1007.setMinute(7);
+        minutes.add(at1007);
+        TestFillBlank at1040 = newFillBlank(2021, 12, 1, 10, 2);
+        at1040.setMinute(40);
+        minutes.add(at1040);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.DECEMBER, 1, 10, 5);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 1, 11, 0);
+        Date end = calendar.getTime();
+        List<TestFillBlank> result = FillDateBlankUtil.fillBlank(minutes, FillDateBlankUtil.FillBlankTypeEnum.MINUTE, 15, start, end, genFunc);
+        List<String> dateStrs = result.stream().map(FillDateBlankUtil.FillBlankBase::getDateStr).collect(Collectors.toList());
+        assertEquals(Arrays.asList("2021-12-01 10:07", "2021-12-01 10:15", "2021-12-01 10:40", "2021-12-01 10:45", "2021-12-01 11:00"), dateStrs);
+
+        List<TestFillBlank> weeks = new ArrayList<>();
+        weeks.add(newFillBlank(2021, 12, 1, 0, 1));
+        weeks.add(newFillBlank(2021, 12, 13, 0, 2));
+        calendar.clear();
+        calendar.set(2021, Calendar.DECEMBER, 2);
+        start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 20);
+        end = calendar.getTime();
+        result = FillDateBlankUtil.fillBlank(weeks, FillDateBlankUtil.FillBlankTypeEnum.WEEK, start, end, genFunc);
+        dateStrs = result.stream().map(FillDateBlankUtil.FillBlankBase::getDateStr).collect(Collectors.toList());
+        assertEquals(Arrays.asList("2021-12-01 00:00", "2021-12-06 00:00", "2021-12-13 00:00", "2021-12-20 00:00"), dateStrs);
+    }
+
+    @DisplayName("工厂创建填充元素")
+    @Test
+    void fillBlankWithFactory() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.DECEMBER, 1);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 3);
+        Date end = calendar.getTime();
+        List<TestFillBlank> result = FillDateBlankUtil.fillBlank(new ArrayList<>(), FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end,
+                TestFillBlank::new, (fillBlankBase) -> ((TestFillBlank) fillBlankBase).setSum(0));
+        assertEquals(3, result.size());
+
+        assertEquals(TestFillBlank.class, new SubTestFillBlank().getActualType());
+        List<SubTestFillBlank> subs = new ArrayList<>();
+        subs.add(new SubTestFillBlank());
+        subs.get(0).setYear(2021);
+        subs.get(0).setMonth(12);
+        subs.get(0).setDay(2);
+        List<TestFillBlank> filled = FillDateBlankUtil.fillBlank(subs, FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end,
+                (fillBlankBase) -> ((TestFillBlank) fillBlankBase).setSum(0));
+        assertEquals(3, filled.size());
+        assertEquals(TestFillBlank.class, filled.get(0).getClass());
+        assertEquals(SubTestFillBlank.class, filled.get(1).getClass());
+    }
+
+    @DisplayName("多序列并行填充")
+    @Test
+    void fillBlankBySeries() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.DECEMBER, 1);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 10);
+        Date end = calendar.getTime();
+        List<TestFillBlank> rows = new ArrayList<>();
+        for (int series = 0; series < 50; series++) {
+            rows.add(newFillBlank(2021, 12, 1 + series % 10, 0, series));
+        }
+        Map<Integer, List<TestFillBlank>> result = FillDateBlankUtil.fillBlankBySeries(rows, TestFillBlank::getSum,
+                FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end, TestFillBlank::new,
+                (seriesKey, fillBlankBase) -> ((TestFillBlank) fillBlankBase).setSum(seriesKey), null);
+        assertEquals(50, result.size());
+        result.forEach((seriesKey, series) -> {
+            assertEquals(10, series.size());
+            series.forEach(t -> assertEquals(seriesKey, t.getSum()));
+        });
+    }
+
     @Test
     void findDates() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.FEBRUARY, 10);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 31);
+        Date end = calendar.getTime();
+        List<Date> quarters = FillDateBlankUtil.findDates(start, end, FillDateBlankUtil.FillBlankTypeEnum.MONTH, 3);
+        assertEquals(5, quarters.size());
+        calendar.setTime(quarters.get(1));
+        assertEquals(Calendar.APRIL, calendar.get(Calendar.MONTH));
+        assertEquals(FillDateBlankUtil.findDates(start, end, FillDateBlankUtil.FillBlankTypeEnum.DAY),
+                FillDateBlankUtil.findDates(start, end, FillDateBlankUtil.FillBlankTypeEnum.DAY, 1));
+    }
+
+    @DisplayName("本地时间填充按本地时间推进, 纪元毫秒填充与Date一致")
+    @Test
+    void fillBlankByLocalDateTime() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        try {
+            //夏令时切换日按本地时间仍是连续24个小时
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            LocalDateTime start = LocalDateTime.of(2021, 3, 14, 0, 0);
+            List<LocalDateTime> hours = FillDateBlankUtil.findDates(start, start.plusHours(23), FillDateBlankUtil.FillBlankTypeEnum.HOUR, 1);
+            assertEquals(24, hours.size());
+            for (int i = 0; i < hours.size(); i++) {
+                assertEquals(start.plusHours(i), hours.get(i));
+            }
+            List<LocalDateTime> quarters = FillDateBlankUtil.findDates(LocalDateTime.of(2021, 2, 10, 0, 0), LocalDateTime.of(2021, 12, 31, 0, 0),
+                    FillDateBlankUtil.FillBlankTypeEnum.MONTH, 3);
+            assertEquals(5, quarters.size());
+            assertEquals(LocalDateTime.of(2021, 4, 10, 0, 0), quarters.get(1));
+
+            TestFillBlank origin = new TestFillBlank();
+            origin.setYear(2021);
+            origin.setMonth(3);
+            origin.setDay(14);
+            origin.setHour(2);
+            origin.setSum(7);
+            List<TestFillBlank> filled = FillDateBlankUtil.fillBlank(Collections.singletonList(origin), FillDateBlankUtil.FillBlankTypeEnum.HOUR,
+                    start, start.plusHours(23), TestFillBlank::new, fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(0));
+            assertEquals(24, filled.size());
+            assertSame(origin, filled.get(2));
+            assertEquals(3, filled.get(3).getHour());
+
+            Date startDate = new Date(1615694400000L);
+            Date endDate = new Date(1617694400000L);
+            List<Instant> instants = FillDateBlankUtil.findDates(startDate.toInstant(), endDate.toInstant(), ZoneId.systemDefault(),
+                    FillDateBlankUtil.FillBlankTypeEnum.DAY, 2);
+            List<Date> dates = FillDateBlankUtil.findDates(startDate, endDate, FillDateBlankUtil.FillBlankTypeEnum.DAY, 2);
+            assertEquals(dates, instants.stream().map(Date::from).collect(Collectors.toList()));
+            assertThrows(IllegalArgumentException.class, () -> FillDateBlankUtil.findDates(start, start.minusDays(1), FillDateBlankUtil.FillBlankTypeEnum.DAY, 1));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @DisplayName("填充缓存与直接填充结果一致, 按容量与存活时间淘汰")
+    @Test
+    void fillBlankCache() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.FEBRUARY, 10, 7, 20);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 31, 23, 0);
+        Date end = calendar.getTime();
+        List<TestFillBlank> origin = randomOrigin(200, 2, 12, 28);
+        AtomicLong clock = new AtomicLong();
+        FillBlankCache cache = new FillBlankCache(2, 4, 10, TimeUnit.SECONDS, clock::get);
+        FillDateBlankUtil.FillBlankGenFunc genFunc = fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(-1);
+        for (FillDateBlankUtil.FillBlankTypeEnum type : FillDateBlankUtil.FillBlankTypeEnum.values()) {
+            if (type == FillDateBlankUtil.FillBlankTypeEnum.MINUTE) {
+                continue;
+            }
+            for (int step : new int[]{1, 3}) {
+                List<TestFillBlank> expected = FillDateBlankUtil.fillBlank(origin, type, step, start, end, TestFillBlank::new, genFunc);
+                for (int round = 0; round < 2; round++) {
+                    List<TestFillBlank> actual = cache.fillBlank(origin, type, step, start, end, TestFillBlank::new, genFunc);
+                    assertSameFill(expected, actual, type + " " + step);
+                }
+                assertEquals(FillDateBlankUtil.findDates(start, end, type, step), cache.findDates(start, end, type, step));
+            }
+        }
+        assertEquals(10, cache.getSlotMissCount());
+        assertEquals(20, cache.getSlotHitCount());
+        assertEquals(2, cache.getSlotSize());
+        assertEquals(8, cache.getEvictionCount());
+
+        List<TestFillBlank> first = cache.fillBlank("chart", 1L, origin, FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end, TestFillBlank::new, genFunc);
+        assertSame(first, cache.fillBlank("chart", 1L, Collections.emptyList(), FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end, TestFillBlank::new, genFunc));
+        assertEquals(1, cache.getResultHitCount());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new TestFillBlank()));
+        //版本变化或过期后重新填充
+        List<TestFillBlank> second = cache.fillBlank("chart", 2L, Collections.emptyList(), FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end, TestFillBlank::new, genFunc);
+        assertTrue(second.stream().allMatch(t -> t.getSum() == -1));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(first != cache.fillBlank("chart", 1L, origin, FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end, TestFillBlank::new, genFunc));
+        assertEquals(3, cache.getResultMissCount());
+        cache.invalidateAll();
+        assertEquals(0, cache.getResultSize());
+    }
+
+    @DisplayName("填充与解析监听统计")
+    @Test
+    void fillBlankMetrics() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.MARCH, 1);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.MARCH, 10);
+        Date end = calendar.getTime();
+        List<TestFillBlank> origin = new ArrayList<>();
+        for (int day : new int[]{5, 2, 7}) {
+            TestFillBlank testFillBlank = new TestFillBlank();
+            testFillBlank.setYear(2021);
+            testFillBlank.setMonth(3);
+            testFillBlank.setDay(day);
+            origin.add(testFillBlank);
+        }
+        FillDateBlankUtil.FillBlankGenFunc genFunc = fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(0);
+        FillBlankMetrics metrics = new FillBlankMetrics().install();
+        try {
+            List<TestFillBlank> result = FillDateBlankUtil.fillBlank(origin, FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end, TestFillBlank::new, genFunc);
+            assertEquals(10, result.size());
+            assertEquals(1, metrics.getFillCount());
+            assertEquals(3, metrics.getOriginCount());
+            assertEquals(10, metrics.getSlotCount());
+            assertEquals(7, metrics.getSynthesizedCount());
+            assertEquals(0.7D, metrics.getFillRatio(), 1e-9);
+            //惰性填充在迭代完毕时上报一次
+            Iterator<TestFillBlank> iterator = FillDateBlankUtil.fillBlankIterator(FillDateBlankUtil.sortByDateKey(origin).iterator(), FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end, genFunc);
+            iterator.forEachRemaining(t -> {
+            });
+            assertEquals(2, metrics.getFillCount());
+            assertEquals(2, metrics.getFillLatency().getCount());
+
+            DateUtil.pareDate("2021-03-01");
+            DateUtil.pareDate("2021-03-01 12:30:00");
+            DateUtil.pareDate("2021-03-01T12:30:00.123Z");
+            DateUtil.pareDate("1614600000.5");
+            assertThrows(RuntimeException.class, () -> DateUtil.pareDate("2021/03/01"));
+            assertEquals(1, metrics.getParseCount(DateParseUtil.DateParseFormatEnum.DATE));
+            assertEquals(1, metrics.getParseCount(DateParseUtil.DateParseFormatEnum.DATE_SECOND));
+            assertEquals(1, metrics.getParseCount(DateParseUtil.DateParseFormatEnum.ISO_MILLISECOND));
+            assertEquals(1, metrics.getParseCount(DateParseUtil.DateParseFormatEnum.SECOND_DOT_NANOSECOND));
+            assertEquals(1, metrics.getParseFailureCount());
+            assertEquals(4, metrics.getParseLatency().getCount());
+            assertTrue(metrics.getParseLatency().getQuantileNanos(1D) >= metrics.getParseLatency().getQuantileNanos(0.5D));
+        } finally {
+            metrics.uninstall();
+        }
+        assertSame(FillDateBlankUtil.NOOP_LISTENER, FillDateBlankUtil.getListener());
+        assertSame(DateParseUtil.NOOP_LISTENER, DateParseUtil.getListener());
+        FillDateBlankUtil.fillBlank(origin, FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end, TestFillBlank::new, genFunc);
+        assertEquals(2, metrics.getFillCount());
+    }
+
+    @DisplayName("填充结果落盘后按游标读回与填充列表一致")
+    @Test
+    void fillBlankSpill(@TempDir Path directory) throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.MARCH, 1);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.MARCH, 31, 23, 59);
+        Date end = calendar.getTime();
+        List<TestFillBlank> origin = randomOrigin(500, 3, 3, 31);
+        FillDateBlankUtil.FillBlankGenFunc genFunc = fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(-1);
+        List<TestFillBlank> expected = FillDateBlankUtil.fillBlank(origin, FillDateBlankUtil.FillBlankTypeEnum.MINUTE, 1, start, end, TestFillBlank::new, genFunc);
+
+        Path file = directory.resolve("minute.spill");
+        //小段长使记录跨多个映射段
+        try (FillBlankSpill spill = FillBlankSpill.create(file, 2, 1000)) {
+            Iterator<TestFillBlank> filled = FillDateBlankUtil.fillBlankIterator(FillDateBlankUtil.sortByDateKey(origin).iterator(), FillDateBlankUtil.FillBlankTypeEnum.MINUTE, start, end, genFunc);
+            assertEquals(expected.size(), spill.appendAll(filled, TestFillBlank::getSum, t -> t.getMinute() * 0.5D));
+            assertSpill(expected, spill);
+        }
+        assertEquals(expected.size() * 24L, Files.size(file));
+        try (FillBlankSpill spill = FillBlankSpill.open(file, 2)) {
+            assertSpill(expected, spill);
+            FillBlankSpill.Cursor cursor = spill.cursor();
+            cursor.seek(expected.size() - 1);
+            assertTrue(cursor.next());
+            assertEquals(expected.get(expected.size() - 1).dateKey(), cursor.dateKey());
+            assertFalse(cursor.next());
+            assertThrows(IllegalStateException.class, () -> spill.append(0L, 1D, 2D));
+        }
+        FillBlankSpill temp = FillBlankSpill.createTemp(0);
+        temp.append(FillDateBlankUtil.packDateKey(2021, 3, 1, 0, 0));
+        assertEquals(1, temp.size());
+        //少量记录时文件不按整段增长
+        temp.force();
+        assertTrue(Files.size(temp.getFile()) <= 64 << 10);
+        temp.close();
+        assertFalse(Files.exists(temp.getFile()));
+
+        //写入中的段扩大映射后, 已打开的游标仍可读取, 游标只看到打开时已写入的记录
+        try (FillBlankSpill spill = FillBlankSpill.create(directory.resolve("growing.spill"), 1)) {
+            FillBlankSpill.Cursor cursor = null;
+            for (int i = 0; i < 20000; i++) {
+                if (i == 3000) {
+                    cursor = spill.cursor();
+                }
+                spill.append(i, i);
+            }
+            for (int i = 0; i < 3000; i++) {
+                assertTrue(cursor.next());
+                assertEquals(i, cursor.dateKey());
+                assertEquals(i, cursor.getValue(0));
+            }
+            assertFalse(cursor.next());
+            assertTrue(Files.size(spill.getFile()) < 2 * 20000L * 16);
+        }
+        assertEquals(20000L * 16, Files.size(directory.resolve("growing.spill")));
+    }
+
+    private static void assertSpill(List<TestFillBlank> expected, FillBlankSpill spill) {
+        FillBlankSpill.Cursor cursor = spill.cursor();
+        for (TestFillBlank testFillBlank : expected) {
+            assertTrue(cursor.next());
+            assertEquals(testFillBlank.dateKey(), cursor.dateKey());
+            assertEquals(testFillBlank.getDay(), cursor.getDay());
+            assertEquals(testFillBlank.getMinute(), cursor.getMinute());
+            assertEquals(testFillBlank.getSum(), (int) cursor.getValue(0));
+            assertEquals(testFillBlank.getMinute() * 0.5D, cursor.getValue(1));
+        }
+        assertFalse(cursor.next());
+    }
+
+    @DisplayName("缺失时间点报告与填充生成的填充元素一致")
+    @Test
+    void findGaps() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.FEBRUARY, 10, 7, 20);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.APRIL, 20, 23, 0);
+        Date end = calendar.getTime();
+        List<TestFillBlank> origin = randomOrigin(300, 1, 5, 28);
+        FillDateBlankUtil.FillBlankGenFunc genFunc = fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(-1);
+        for (FillDateBlankUtil.FillBlankTypeEnum type : FillDateBlankUtil.FillBlankTypeEnum.values()) {
+            for (int step : new int[]{1, 3, 7}) {
+                List<TestFillBlank> filled = FillDateBlankUtil.fillBlank(origin, type, step, start, end, TestFillBlank::new, genFunc);
+                List<Long> expected = filled.stream().filter(t -> t.getSum() < 0).map(t -> type.truncate(t.dateKey())).collect(Collectors.toList());
+                FillGapReport report = FillDateBlankUtil.findGaps(origin, type, step, start, end);
+                FillSlots slots = FillSlots.of(type, step, start, end);
+                List<Long> actual = new ArrayList<>();
+                for (int run = 0; run < report.getRunCount(); run++) {
+                    int index = report.getRunStartIndex(run);
+                    assertEquals(slots.keys[index], report.getRunStartKey(run));
+                    assertEquals(slots.times[index], report.getRunStartTime(run));
+                    if (run > 0) {
+                        //相邻两段之间至少隔一个有数据的时间点
+                        assertTrue(index > report.getRunStartIndex(run - 1) + report.getRunLength(run - 1));
+                    }
+                    for (int i = 0; i < report.getRunLength(run); i++) {
+                        actual.add(slots.keys[index + i]);
+                    }
+                }
+                assertEquals(expected, actual, type + " " + step);
+                assertEquals(slots.size, report.getSlotCount());
+                assertEquals(expected.size(), report.getMissingCount());
+                assertEquals(origin.size(), report.getOriginCount() + report.getOutOfRangeCount());
+                assertEquals((double) report.getCoveredCount() / slots.size, report.getCoverage(), 1e-12);
+            }
+        }
+        FillGapReport empty = FillDateBlankUtil.findGaps(Collections.<TestFillBlank>emptyList(), FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end);
+        assertEquals(1, empty.getRunCount());
+        assertEquals(empty.getSlotCount(), empty.getLongestRun());
+        assertEquals(0D, empty.getCoverage());
+        assertThrows(IllegalStateException.class, () -> FillDateBlankUtil.findGaps(origin.iterator(), FillDateBlankUtil.FillBlankTypeEnum.DAY, 1, start, end));
+    }
+
+    @DisplayName("滑动窗口与对窗口区间重新填充结果一致, 只为新时间点生成填充元素")
+    @Test
+    void fillBlankWindow() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.MARCH, 1, 7, 20);
+        Random random = new Random(RANDOM_SEED);
+        int[] generated = new int[1];
+        FillDateBlankUtil.FillBlankGenFunc genFunc = fillBlankBase -> {
+            generated[0]++;
+            ((TestFillBlank) fillBlankBase).setSum(-1);
+        };
+        for (FillDateBlankUtil.FillBlankTypeEnum type : FillDateBlankUtil.FillBlankTypeEnum.values()) {
+            for (int step : new int[]{1, 5}) {
+                generated[0] = 0;
+                FillBlankWindow<TestFillBlank> window = new FillBlankWindow<>(type, step, 24, calendar.getTime(), TestFillBlank::new, genFunc);
+                assertEquals(24, generated[0]);
+                List<TestFillBlank> arrived = new ArrayList<>();
+                for (int tick = 0; tick < 30; tick++) {
+                    int slide = random.nextInt(4) == 0 ? 30 : random.nextInt(3);
+                    generated[0] = 0;
+                    window.advance(slide);
+                    //跳过多于窗口长度时只为最后窗口长度个时间点生成填充元素
+                    assertEquals(Math.min(slide, 24), generated[0]);
+                    Calendar rowTime = Calendar.getInstance();
+                    for (int i = 0; i < 5; i++) {
+                        rowTime.setTimeInMillis(window.getStartTime() + (long) (random.nextDouble() * (window.getEndTime() - window.getStartTime() + 1)));
+                        TestFillBlank row = new TestFillBlank();
+                        row.setYear(rowTime.get(Calendar.YEAR));
+                        row.setMonth(rowTime.get(Calendar.MONTH) + 1);
+                        row.setDay(rowTime.get(Calendar.DAY_OF_MONTH));
+                        row.setHour(rowTime.get(Calendar.HOUR_OF_DAY));
+                        row.setMinute(rowTime.get(Calendar.MINUTE));
+                        row.setSum(tick * 10 + i);
+                        arrived.add(row);
+                        assertTrue(window.add(row));
+                    }
+                    TestFillBlank stale = new TestFillBlank();
+                    stale.setYear(2000);
+                    stale.setMonth(1);
+                    stale.setDay(1);
+                    assertTrue(!window.add(stale));
+                    //从最初起点整体填充后截取窗口部分, 时间点网格与窗口一致
+                    long startKey = type.truncate(FillSlots.dateKeyOf(window.getStartTime(), TimeZone.getDefault()));
+                    List<TestFillBlank> expected = FillDateBlankUtil.fillBlank(arrived, type, step, calendar.getTime(), new Date(window.getEndTime()),
+                            TestFillBlank::new, fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(-1)).stream()
+                            .filter(t -> type.truncate(t.dateKey()) >= startKey)
+                            .collect(Collectors.toList());
+                    assertSameFill(expected, window.getView(), type + " " + step + " " + tick);
+                }
+            }
+        }
+        FillBlankWindow<TestFillBlank> window = new FillBlankWindow<>(FillDateBlankUtil.FillBlankTypeEnum.HOUR, 1, 24, calendar.getTime(), TestFillBlank::new, genFunc);
+        assertEquals(0, window.advanceTo(window.getEndTime()));
+        assertEquals(3, window.advanceTo(window.getEndTime() + 3 * 3600000L + 1));
+        //远期终点直接跳转, 只重建最后窗口长度个时间点
+        long endTime = window.getEndTime() + 7 * 24 * 3600000L;
+        generated[0] = 0;
+        assertEquals(7 * 24, window.advanceTo(endTime));
+        assertEquals(24, generated[0]);
+        assertEquals(endTime, window.getEndTime());
+        assertEquals(endTime - 23 * 3600000L, window.getStartTime());
+        FillBlankWindow<TestFillBlank> minutes = new FillBlankWindow<>(FillDateBlankUtil.FillBlankTypeEnum.MINUTE, 1, 60, calendar.getTime(), TestFillBlank::new, genFunc);
+        generated[0] = 0;
+        assertTrue(minutes.advanceTo(Long.MAX_VALUE) > 0);
+        assertEquals(60, generated[0]);
+    }
+
+    @DisplayName("多粒度汇总与各粒度单独聚合结果一致")
+    @Test
+    void bucketRollup() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.FEBRUARY, 10, 7, 20);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.APRIL, 3, 13, 45);
+        Date end = calendar.getTime();
+        calendar.set(2021, Calendar.JANUARY, 1, 0, 0);
+        long from = calendar.getTimeInMillis();
+        Random random = new Random(RANDOM_SEED);
+        long[] times = new long[50000];
+        double[] values = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = from + (long) (random.nextDouble() * 120 * 86400000L);
+            values[i] = random.nextInt(1000) - 200;
+        }
+        FillDateBlankUtil.FillBlankTypeEnum[] resolutions = {FillDateBlankUtil.FillBlankTypeEnum.MONTH, FillDateBlankUtil.FillBlankTypeEnum.MINUTE,
+                FillDateBlankUtil.FillBlankTypeEnum.HOUR, FillDateBlankUtil.FillBlankTypeEnum.WEEK, FillDateBlankUtil.FillBlankTypeEnum.DAY,
+                FillDateBlankUtil.FillBlankTypeEnum.YEAR};
+        for (FillBucketAggregator.FillBucketReducerEnum reducer : FillBucketAggregator.FillBucketReducerEnum.values()) {
+            FillBucketRollup rollup = new FillBucketRollup(start, end, reducer, -1, resolutions);
+            rollup.acceptAll(times, values);
+            assertEquals(Arrays.asList(resolutions), new ArrayList<>(rollup.getAll().keySet()));
+            for (FillDateBlankUtil.FillBlankTypeEnum type : resolutions) {
+                FillBucketAggregator expected = new FillBucketAggregator(type, start, end, reducer, -1);
+                expected.acceptAll(times, values);
+                FillBucketAggregator actual = rollup.get(type);
+                assertEquals(Arrays.toString(expected.getSlotTimes()), Arrays.toString(actual.getSlotTimes()), reducer + " " + type);
+                assertEquals(Arrays.toString(expected.getCounts()), Arrays.toString(actual.getCounts()), reducer + " " + type);
+                double[] expectedValues = expected.getValues();
+                double[] actualValues = actual.getValues();
+                for (int i = 0; i < expectedValues.length; i++) {
+                    assertEquals(expectedValues[i], actualValues[i], 1e-6, reducer + " " + type + " " + i);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new FillBucketRollup(start, end, FillBucketAggregator.FillBucketReducerEnum.SUM, 0,
+                FillDateBlankUtil.FillBlankTypeEnum.WEEK, FillDateBlankUtil.FillBlankTypeEnum.MONTH));
+    }
+
+    @DisplayName("时间桶聚合与逐条分组结果一致")
+    @Test
+    void bucketAggregator() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.NOVEMBER, 25, 6, 0);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 5, 6, 0);
+        Date end = calendar.getTime();
+        FillBucketAggregator sum = new FillBucketAggregator(FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end, FillBucketAggregator.FillBucketReducerEnum.SUM, -1);
+        FillBucketAggregator max = new FillBucketAggregator(FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end, FillBucketAggregator.FillBucketReducerEnum.MAX, 0);
+        FillBucketAggregator avg = new FillBucketAggregator(FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end, FillBucketAggregator.FillBucketReducerEnum.AVG, 0);
+        assertEquals(11, sum.getSlotCount());
+        double[] expectedSum = new double[11];
+        double[] expectedMax = new double[11];
+        long[] expectedCount = new long[11];
+        Arrays.fill(expectedMax, Double.NEGATIVE_INFINITY);
+        long dropped = 0;
+        Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < 2000; i++) {
+            //跳过11月30日, 并覆盖区间外的数据
+            calendar.set(2021, Calendar.NOVEMBER, 23 + random.nextInt(17), random.nextInt(24), random.nextInt(60));
+            int index = calendar.get(Calendar.DAY_OF_YEAR) - 329;
+            if (index == 5) {
+                continue;
+            }
+            double value = random.nextInt(100);
+            boolean accepted = sum.accept(calendar.getTime(), value);
+            max.accept(calendar.getTime(), value);
+            avg.accept(calendar.getTimeInMillis(), value);
+            assertEquals(index >= 0 && index < 11, accepted, calendar.getTime().toString());
+            if (!accepted) {
+                dropped++;
+            } else {
+                expectedSum[index] += value;
+                expectedMax[index] = Math.max(expectedMax[index], value);
+                expectedCount[index]++;
+            }
+        }
+        expectedSum[5] = -1;
+        expectedMax[5] = 0;
+        assertTrue(Arrays.equals(expectedSum, sum.getValues()));
+        assertTrue(Arrays.equals(expectedMax, max.getValues()));
+        assertTrue(Arrays.equals(expectedCount, sum.getCounts()));
+        assertEquals(dropped, sum.getDroppedCount());
+        assertEquals(expectedSum[0] / expectedCount[0], avg.getValues()[0]);
+
+        //转换结果与空白填充的时间点一致
+        List<TestFillBlank> aggregated = sum.toList(TestFillBlank::new, (testFillBlank, value) -> testFillBlank.setSum((int) value));
+        List<TestFillBlank> filled = FillDateBlankUtil.fillBlank(Collections.emptyList(), FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end,
+                TestFillBlank::new, fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(-1));
+        assertEquals(filled.stream().map(TestFillBlank::getDateStr).collect(Collectors.toList()),
+                aggregated.stream().map(TestFillBlank::getDateStr).collect(Collectors.toList()));
+        assertEquals(-1, (int) aggregated.get(5).getSum());
+    }
+
+    @DisplayName("列式序列与填充列表互转")
+    @Test
+    void fillSeries() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2021, Calendar.NOVEMBER, 25);
+        Date start = calendar.getTime();
+        calendar.set(2021, Calendar.DECEMBER, 5);
+        Date end = calendar.getTime();
+        List<TestFillBlank> origin = Arrays.asList(newFillBlank(2021, 12, 2, 0, 5), newFillBlank(2021, 11, 26, 0, 3),
+                newFillBlank(2021, 12, 9, 0, 7));
+        FillSeries series = new FillSeries(FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end);
+        long[] sum = series.addLongColumn("sum", -1);
+        assertEquals(2, series.putAll(origin, (testFillBlank, index) -> sum[index] = testFillBlank.getSum()));
+        assertEquals(11, series.size());
+        assertEquals(start.getTime(), series.getStartTime());
+        assertEquals(9, series.getSynthesized().cardinality());
+        assertTrue(!series.isSynthesized(1) && !series.isSynthesized(7) && series.isSynthesized(0));
+
+        List<TestFillBlank> filled = FillDateBlankUtil.fillBlank(origin, FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end,
+                TestFillBlank::new, fillBlankBase -> ((TestFillBlank) fillBlankBase).setSum(-1));
+        filled = filled.subList(0, filled.size() - 1);
+        List<TestFillBlank> converted = series.toList(TestFillBlank::new, (testFillBlank, index) -> testFillBlank.setSum((int) sum[index]));
+        assertSameFill(filled, converted, "toList");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        series.addDoubleColumn("rate", 0.5);
+        series.writeTo(new DataOutputStream(bytes));
+        FillSeries copy = FillSeries.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertTrue(Arrays.equals(series.getTimes(), copy.getTimes()));
+        assertTrue(Arrays.equals(sum, copy.getLongColumn("sum")));
+        assertTrue(Arrays.equals(series.getDoubleColumn("rate"), copy.getDoubleColumn("rate")));
+        assertEquals(series.getSynthesized(), copy.getSynthesized());
+        assertEquals(FillDateBlankUtil.FillBlankTypeEnum.DAY, copy.getFillBlankType());
+        assertThrows(IllegalArgumentException.class, () -> series.addDoubleColumn("sum", 0));
+
+        FillBucketAggregator aggregator = new FillBucketAggregator(FillDateBlankUtil.FillBlankTypeEnum.DAY, start, end, FillBucketAggregator.FillBucketReducerEnum.COUNT, 0);
+        aggregator.accept(start, 1);
+        FillSeries counted = aggregator.toSeries("count");
+        assertEquals(1, counted.getDoubleColumn("count")[0]);
+        assertEquals(10, counted.getSynthesized().cardinality());
+    }
+
+    static TestFillBlank newFillBlank(int year, int month, int day, int hour, int sum) {
+        TestFillBlank testFillBlank = new TestFillBlank();
+        testFillBlank.setYear(year);
+        testFillBlank.setMonth(month);
+        testFillBlank.setDay(day);
+        testFillBlank.setHour(hour);
+        testFillBlank.setSum(sum);
+        return testFillBlank;
+    }
+
+    //固定种子的随机原始数据: 2021年firstMonth至lastMonth月, 日为1至maxDay, 时、分随机, 值为序号
+    static List<TestFillBlank> randomOrigin(int count, int firstMonth, int lastMonth, int maxDay) {
+        Random random = new Random(RANDOM_SEED);
+        List<TestFillBlank> origin = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TestFillBlank testFillBlank = newFillBlank(2021, firstMonth + random.nextInt(lastMonth - firstMonth + 1), 1 + random.nextInt(maxDay), random.nextInt(24), i);
+            testFillBlank.setMinute(random.nextInt(60));
+            origin.add(testFillBlank);
+        }
+        return origin;
+    }
+
+    //按 日期=值 逐个比较填充结果
+    static void assertSameFill(List<TestFillBlank> expected, List<? extends TestFillBlank> actual, String message) {
+        assertEquals(expected.stream().map(t -> t.getDateStr() + "=" + t.getSum()).collect(Collectors.toList()),
+                actual.stream().map(t -> t.getDateStr() + "=" + t.getSum()).collect(Collectors.toList()), message);
     }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package io.github.cloudintheking.tools.date;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DateContextTest {
+
+    private static final String[] ZONES = {"Asia/Shanghai", "UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe", "America/Sao_Paulo", "Asia/Kolkata"};
+
+    //1850-01-01 ~ 2150-01-01, 覆盖偏移表区间外
+    private static final long FROM = -3786825600000L;
+    private static final long TO = 5680281600000L;
+
+    @DisplayName("偏移切换表与原时区一致")
+    @Test
+    void offsetTable() {
+        Random random = new Random(20211201L);
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            TimeZone table = OffsetTableZone.of(zone);
+            for (int i = 0; i < 200000; i++) {
+                long millis = FROM + (long) (random.nextDouble() * (TO - FROM));
+                assertEquals(zone.getOffset(millis), table.getOffset(millis), zoneId + " " + millis);
+            }
+        }
+        //自定义时区不生成切换表
+        TimeZone custom = new SimpleTimeZone(3600000, "Custom");
+        assertEquals(SimpleTimeZone.class, OffsetTableZone.of(custom).getClass());
+        assertThrows(UnsupportedOperationException.class, () -> OffsetTableZone.of(TimeZone.getTimeZone("UTC")).setRawOffset(0));
+    }
+
+    @DisplayName("按上下文计算与对应配置的Calendar一致")
+    @Test
+    void sameAsCalendar() {
+        Random random = new Random(20211201L);
+        Locale[] locales = {Locale.US, Locale.CHINA, Locale.GERMANY};
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            for (Locale locale : locales) {
+                DateContext context = DateContext.of(zone, locale);
+                for (int i = 0; i < 5000; i++) {
+                    long millis = -631152000000L + (long) (random.nextDouble() * 3155760000000L);
+                    String message = zoneId + " " + locale + " " + millis;
+                    Calendar calendar = Calendar.getInstance(zone, locale);
+                    calendar.setTimeInMillis(millis);
+                    assertEquals(calendar.get(Calendar.WEEK_OF_YEAR), context.getWeekOfYear(millis), message);
+                    assertEquals(calendar.get(Calendar.DAY_OF_WEEK), context.getDayOfWeek(millis), message);
+
+                    calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek());
+                    calendar.set(Calendar.HOUR_OF_DAY, 0);
+                    calendar.set(Calendar.MINUTE, 0);
+                    calendar.set(Calendar.SECOND, 0);
+                    calendar.set(Calendar.MILLISECOND, 0);
+                    assertEquals(calendar.getTimeInMillis(), context.getFirstDayOfWeek(millis), message);
+
+                    assertEquals(EpochDateUtil.startOfDay(millis, zone), context.getStartOfDay(millis), message);
+                    assertEquals(EpochDateUtil.lastDayOfMonth(millis, zone), context.getLastDayOfMonth(millis), message);
+                    assertEquals(EpochDateUtil.add(millis, zone, Calendar.MONTH, 5), context.addDate(millis, Calendar.MONTH, 5), message);
+                    assertEquals(DateFormatUtil.append(millis, zone, DateFormatUtil.WIDTH_ON_SECOND, new StringBuilder()).toString(),
+                            context.format(millis, DateUtil.PATTERN_DEFAULT_ON_SECOND), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void of() {
+        TimeZone zone = TimeZone.getTimeZone("Asia/Tokyo");
+        assertSame(DateContext.of(zone), DateContext.of(TimeZone.getTimeZone("Asia/Tokyo")));
+        assertEquals(Calendar.MONDAY, DateContext.of(zone).getFirstDayOfWeek());
+        assertEquals(Calendar.SUNDAY, DateContext.of(zone, Locale.US).getFirstDayOfWeek());
+        assertThrows(IllegalArgumentException.class, () -> DateContext.of(zone, 0, 1, Locale.US));
+        assertThrows(IllegalArgumentException.class, () -> DateContext.of(null));
+        assertThrows(IllegalArgumentException.class, () -> DateContext.of(null, Locale.US));
+        assertThrows(IllegalArgumentException.class, () -> DateContext.of(zone, Calendar.MONDAY, 1, null));
+        //默认区域变更后不沿用按原区域缓存的上下文
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            assertEquals(Locale.GERMANY, DateContext.of(zone).getLocale());
+            assertEquals(4, DateContext.of(zone).getMinimalDaysInFirstWeek());
+            Locale.setDefault(Locale.US);
+            assertEquals(Locale.US, DateContext.of(zone).getLocale());
+            assertEquals(1, DateContext.of(zone).getMinimalDaysInFirstWeek());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+        DateContext context = DateContext.of(zone);
+        assertEquals(DateParseUtil.parse("2021-12-01 10:30", 0, 16, zone), context.pareDate(" 2021-12-01 10:30 ").getTime());
+    }
+}
@@ -0,0 +1,268 @@
+package io.github.cloudintheking.tools.date;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.apache.commons.lang3.time.FastDateFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DateUtilTest {
+
+    @DisplayName("自动识别解析与正则实现一致")
+    @Test
+    void pareDate() throws ParseException {
+        Random random = new Random(20211201L);
+        for (int i = 0; i < 20000; i++) {
+            String year = String.format("%04d", 1900 + random.nextInt(200));
+            String date = year + "-" + number(random, 1, 13) + "-" + number(random, 1, 32);
+            String time = number(random, 0, 24) + ":" + number(random, 0, 60);
+            String second = number(random, 0, 60);
+            String[] sources = {
+                    year + "-" + number(random, 1, 13),
+                    date,
+                    date + " " + time,
+                    date + " " + time + ":" + second,
+                    date + "T" + time + ":" + second + "Z",
+                    date + "T" + time + ":" + second + "." + random.nextInt(1000) + "Z",
+                    (random.nextInt(Integer.MAX_VALUE) + 1000L * random.nextInt(1000)) + "." + random.nextInt(1000000000),
+                    " " + date + "\t",
+            };
+            for (String source : sources) {
+                assertEquals(pareDateByRegex(source), DateUtil.pareDate(source), source);
+            }
+        }
+        //宽松模式顺延
+        assertEquals(pareDateByRegex("2021-13-32 25:61:61"), DateUtil.pareDate("2021-13-32 25:61:61"));
+        assertEquals(pareDateByRegex("2021-0-0"), DateUtil.pareDate("2021-0-0"));
+        assertNull(DateUtil.pareDate("  "));
+        String buffer = "id=1,time=2021-12-01 10:30:00,value=5";
+        assertEquals(DateUtil.pareDate("2021-12-01 10:30:00"), DateUtil.pareDate(buffer, 10, 19));
+        String[] invalids = {"2021", "21-12", "2021-123", "2021-12-01 10", "2021-12-01T10:30", "2021-12-01T10:30:00",
+                "2021-12-01T10:30:00.1234Z", "2021/12/01", "1.1234567890", ".5", "2021-12-01  10:30", "abc"};
+        for (String invalid : invalids) {
+            assertThrows(IllegalArgumentException.class, () -> pareDateByRegex(invalid), invalid);
+            assertThrows(IllegalArgumentException.class, () -> DateUtil.pareDate(invalid), invalid);
+        }
+    }
+
+    @DisplayName("日期列批量解析与逐个解析一致")
+    @Test
+    void columnParser() throws ParseException {
+        Random random = new Random(20211201L);
+        for (int column = 0; column < 7; column++) {
+            StringBuilder text = new StringBuilder();
+            String[] sources = new String[2000];
+            for (int i = 0; i < sources.length; i++) {
+                String date = String.format("%04d", 1900 + random.nextInt(200)) + "-" + number(random, 1, 13) + "-" + number(random, 1, 32);
+                String time = number(random, 0, 24) + ":" + number(random, 0, 60);
+                String second = number(random, 0, 60);
+                String[] formats = {
+                        date.substring(0, date.lastIndexOf('-')),
+                        date,
+                        date + " " + time,
+                        date + " " + time + ":" + second,
+                        date + "T" + time + ":" + second + "Z",
+                        date + "T" + time + ":" + second + "." + String.format("%03d", random.nextInt(1000)) + "Z",
+                        random.nextInt(Integer.MAX_VALUE) + "." + random.nextInt(1000000000),
+                };
+                //每列以一种格式为主, 夹杂空白与其他格式
+                int pick = random.nextInt(20);
+                sources[i] = pick == 0 ? " " : pick == 1 ? formats[random.nextInt(formats.length)] : formats[column];
+                text.append(sources[i]).append(i % 3 == 0 ? "\r\n" : "\n");
+            }
+            //偶数列用堆缓冲区, 奇数列用直接缓冲区(分块读取)
+            byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buffer = column % 2 == 0 ? ByteBuffer.wrap(bytes) : ByteBuffer.allocateDirect(bytes.length);
+            if (buffer.isDirect()) {
+                buffer.put(bytes);
+                buffer.flip();
+            }
+            DateColumnParser parser = new DateColumnParser();
+            long[] target = new long[300];
+            int index = 0;
+            int count;
+            while ((count = parser.parseDelimited(buffer, (byte) '\n', target, 0)) > 0) {
+                for (int i = 0; i < count; i++, index++) {
+                    Date expected = DateUtil.pareDate(sources[index]);
+                    assertEquals(expected == null ? Long.MIN_VALUE : expected.getTime(), target[i], sources[index]);
+                }
+            }
+            assertEquals(sources.length, index);
+            assertTrue(parser.getFormat() != null);
+        }
+        //按字段位置解析, 不改变position
+        ByteBuffer buffer = ByteBuffer.wrap("id=1,time=2021-12-01 10:30:00,at=2021-12-01T10:30:00.123Z,x=2021-1-5 1:2:3".getBytes(StandardCharsets.US_ASCII));
+        DateColumnParser parser = DateContext.of(TimeZone.getDefault()).columnParser();
+        long[] target = new long[3];
+        parser.parse(buffer, new int[]{10, 33, 60}, new int[]{19, 24, 14}, target);
+        assertEquals(DateUtil.pareDate("2021-12-01 10:30:00").getTime(), target[0]);
+        assertEquals(DateUtil.pareDate("2021-12-01T10:30:00.123Z").getTime(), target[1]);
+        assertEquals(DateUtil.pareDate("2021-1-5 1:2:3").getTime(), target[2]);
+        assertEquals(DateParseUtil.DateParseFormatEnum.DATE_SECOND, parser.getFormat());
+        assertEquals(0, buffer.position());
+        //解析失败时position停在出错字段起点
+        ByteBuffer invalid = ByteBuffer.wrap("2021-12-01\n2021/12/02\n".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(IllegalArgumentException.class, () -> new DateColumnParser().parseDelimited(invalid, (byte) '\n', new long[4], 0));
+        assertEquals(11, invalid.position());
+        //超过分块长度的字段
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            padding.append(' ');
+        }
+        byte[] longField = (padding + "2021-12-01\n2021-12-02").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(longField.length);
+        direct.put(longField);
+        direct.flip();
+        long[] two = new long[2];
+        assertEquals(2, new DateColumnParser().parseDelimited(direct, (byte) '\n', two, 0));
+        assertEquals(DateUtil.pareDate("2021-12-02").getTime(), two[1]);
+        assertEquals(longField.length, direct.position());
+    }
+
+    @DisplayName("定长写出与FastDateFormat一致")
+    @Test
+    void format() {
+        String[] patterns = {DateUtil.PATTERN_DEFAULT_ON_YEAR, DateUtil.PATTERN_DEFAULT_ON_MONTH, DateUtil.PATTERN_DEFAULT_ON_DAY,
+                DateUtil.PATTERN_DEFAULT_ON_HOUR, DateUtil.PATTERN_DEFAULT_ON_MINUTE, DateUtil.PATTERN_DEFAULT_ON_SECOND, DateUtil.PATTERN_DEFAULT};
+        String[] zones = {"Asia/Shanghai", "UTC", "America/New_York", "Australia/Lord_Howe"};
+        Random random = new Random(20211201L);
+        char[] chars = new char[64];
+        StringBuilder builder = new StringBuilder();
+        for (String zoneId : zones) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            for (int i = 0; i < 5000; i++) {
+                //-9999 ~ 12000年, 覆盖区间外的回退
+                long millis = -377705116800000L + (long) (random.nextDouble() * 693000000000000L);
+                for (String pattern : patterns) {
+                    String expected = FastDateFormat.getInstance(pattern, zone).format(millis);
+                    int width = DateFormatUtil.widthOf(pattern);
+                    int end = DateFormatUtil.write(millis, zone, width, chars, 3);
+                    assertEquals(expected, new String(chars, 3, end - 3), zoneId + " " + millis);
+                    builder.setLength(0);
+                    assertEquals(expected, DateFormatUtil.append(millis, zone, width, builder).toString());
+                    ByteBuffer buffer = DateFormatUtil.put(millis, zone, width, ByteBuffer.allocate(64));
+                    assertEquals(expected, new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (String pattern : patterns) {
+            assertEquals(DateFormatUtils.format(now, pattern), DateUtil.format(new Date(now), pattern));
+            assertEquals(DateFormatUtils.format(now, pattern), DateUtil.format(now, pattern, new StringBuilder()).toString());
+        }
+        assertEquals(DateFormatUtils.format(now, "yyyy/MM/dd"), DateUtil.format(now, "yyyy/MM/dd"));
+        //修改默认时区后格式化与解析跟随当前默认时区
+        TimeZone defaultZone = TimeZone.getDefault();
+        try {
+            for (String zoneId : zones) {
+                TimeZone.setDefault(TimeZone.getTimeZone(zoneId));
+                for (String pattern : patterns) {
+                    assertEquals(DateFormatUtils.format(now, pattern), DateUtil.format(now, pattern), zoneId);
+                    assertEquals(DateFormatUtils.format(now, pattern), DateUtil.format(now, pattern, new StringBuilder()).toString(), zoneId);
+                }
+                assertEquals(DateFormatUtils.format(now, DateUtil.PATTERN_ISO), DateUtil.format(new Date(now), DateUtil.PATTERN_ISO), zoneId);
+                String second = DateFormatUtils.format(now, DateUtil.PATTERN_DEFAULT_ON_SECOND);
+                assertEquals(now / 1000 * 1000, DateUtil.pareDate(second, 0, second.length()).getTime(), zoneId);
+            }
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+        assertEquals(String.format("%04d-%02d-%02d %02d:%02d", 2021, 12, 1, 9, 5), DateFormatUtil.formatFields(2021, 12, 1, 9, 5));
+        assertEquals(String.format("%04d-%02d-%02d %02d:%02d", 12021, 112, 1, 9, -5), DateFormatUtil.formatFields(12021, 112, 1, 9, -5));
+        assertThrows(IllegalArgumentException.class, () -> DateFormatUtil.write(now, TimeZone.getDefault(), 5, chars, 0));
+    }
+
+    @DisplayName("本地时间重载与java.time计算一致")
+    @Test
+    void localDateTime() {
+        Random random = new Random(20211201L);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DateUtil.PATTERN_DEFAULT);
+        for (int i = 0; i < 20000; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(1900, 1, 1, 0, 0).plusNanos((long) (random.nextDouble() * 7.0e18));
+            LocalDateTime other = LocalDateTime.of(1900, 1, 1, 0, 0).plusNanos((long) (random.nextDouble() * 7.0e18));
+            LocalDateTime startOfDay = dateTime.truncatedTo(ChronoUnit.DAYS);
+            String message = dateTime.toString();
+            assertEquals(startOfDay, DateUtil.getStartOfDay(dateTime), message);
+            assertEquals(startOfDay.withHour(23).withMinute(59).withSecond(59), DateUtil.getEndOfDay(dateTime), message);
+            assertEquals(startOfDay.withDayOfMonth(1), DateUtil.getFirstDayOfMonth(dateTime), message);
+            assertEquals(startOfDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), DateUtil.getFirstDayOfWeek(dateTime), message);
+            assertEquals(startOfDay.withDayOfYear(1), DateUtil.getFirstDayOfYear(dateTime), message);
+            assertEquals(dateTime.getDayOfWeek().getValue() % 7 + 1, DateUtil.getDayOfWeek(dateTime), message);
+            assertEquals(dateTime.plusMonths(5), DateUtil.addDate(dateTime, Calendar.MONTH, 5), message);
+            assertEquals(dateTime.plusHours(-30), DateUtil.addDate(dateTime, Calendar.HOUR_OF_DAY, -30), message);
+            assertEquals(ChronoUnit.DAYS.between(dateTime.toLocalDate(), other.toLocalDate()), DateUtil.betweenDay(dateTime, other), message);
+            assertEquals(ChronoUnit.HOURS.between(dateTime.truncatedTo(ChronoUnit.HOURS), other.truncatedTo(ChronoUnit.HOURS)), DateUtil.betweenHour(dateTime, other), message);
+            assertEquals(ChronoUnit.MONTHS.between(dateTime.toLocalDate().withDayOfMonth(1), other.toLocalDate().withDayOfMonth(1)), DateUtil.betweenMonth(dateTime, other), message);
+            assertEquals(dateTime.toLocalDate().equals(other.toLocalDate()), DateUtil.isSameDay(dateTime, other), message);
+            assertEquals(formatter.format(dateTime), DateUtil.format(dateTime, DateUtil.PATTERN_DEFAULT), message);
+        }
+        LocalDateTime dateTime = LocalDateTime.of(2021, 12, 1, 10, 30);
+        assertEquals("2021/12/01", DateUtil.format(dateTime, "yyyy/MM/dd"));
+        assertEquals(dateTime, DateUtil.addDate(DateUtil.getStartOfDay(dateTime), Calendar.MINUTE, 630));
+        //本地时间算术所用时区只读
+        assertThrows(UnsupportedOperationException.class, () -> EpochDateUtil.localZone().setRawOffset(3600000));
+        assertThrows(UnsupportedOperationException.class, () -> EpochDateUtil.localZone().setID("Asia/Shanghai"));
+        assertEquals(0, EpochDateUtil.localZone().getOffset(System.currentTimeMillis()));
+        //周数跟随当前默认区域的第一周最少天数: 2021-01-03在德国属于上一年第53周, 在美国属于第1周
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            assertEquals(53, DateUtil.getWeekOfYear(LocalDateTime.of(2021, 1, 3, 0, 0)));
+            Locale.setDefault(Locale.US);
+            assertEquals(1, DateUtil.getWeekOfYear(LocalDateTime.of(2021, 1, 3, 0, 0)));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static String number(Random random, int from, int to) {
+        int value = from + random.nextInt(to - from);
+        return random.nextBoolean() && value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    //原正则实现
+    private static Date pareDateByRegex(String dateString) throws ParseException {
+        String source = dateString.trim();
+        if (StringUtils.isNotBlank(source)) {
+            if (source.matches(DateUtil.DATE_REGEX_YYYYMM)) {
+                return DateUtil.ISO_ON_MONTH_FORMAT.parse(source);
+            } else if (source.matches(DateUtil.DATE_REGEX_YYYYMMDD)) {
+                return DateUtil.ISO_ON_DATE_FORMAT.parse(source);
+            } else if (source.matches(DateUtil.DATE_REGEX_YYYYMMDDHHMM)) {
+                return DateUtil.DEFAULT_ON_MINUTE_FORMAT.parse(source);
+            } else if (source.matches(DateUtil.DATE_REGEX_YYYYMMDDHHMMSS)) {
+                return DateUtil.DEFAULT_ON_SECOND_FORMAT.parse(source);
+            } else if (source.matches(DateUtil.DATE_REGEX_YYYYMMDD_T_HHMMSS_Z)) {
+                return DateUtil.ISO_ON_SECOND_FORMAT.parse(source);
+            } else if (source.matches(DateUtil.DATE_REGEX_YYYYMMDD_T_HHMMSS_SSS_Z)) {
+                return DateUtil.ISO_FORMAT.parse(source);
+            } else if (source.matches(DateUtil.DATE_REGEX_SECOND_DOT_NANOSECOND)) {
+                String[] split = source.split(DateUtil.SYMBOL_DOT);
+                return Date.from(Instant.ofEpochSecond(Long.parseLong(split[0]), Long.parseLong(split[1])));
+            } else {
+                throw new IllegalArgumentException("Invalid date value '" + source + "'");
+            }
+        }
+        return null;
+    }
+}
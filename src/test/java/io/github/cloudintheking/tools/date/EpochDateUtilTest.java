@@ -0,0 +1,210 @@
+package io.github.cloudintheking.tools.date;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EpochDateUtilTest {
+
+    private static final String[] ZONES = {"Asia/Shanghai", "UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe", "America/Sao_Paulo"};
+
+    //1950-01-01 ~ 2050-01-01
+    private static final long FROM = -631152000000L;
+    private static final long TO = 2524608000000L;
+
+    @DisplayName("与Calendar计算结果一致")
+    @Test
+    void sameAsCalendar() {
+        Random random = new Random(20211201L);
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            for (int i = 0; i < 20000; i++) {
+                long millis = FROM + (long) (random.nextDouble() * (TO - FROM));
+                //一半样本取整点附近,覆盖夏令时切换时刻
+                if ((i & 1) == 0) {
+                    millis -= Math.floorMod(millis, EpochDateUtil.MILLIS_PER_HOUR) - random.nextInt(3) * 1000;
+                }
+                String message = zoneId + " " + millis;
+                Calendar calendar = calendar(zone, millis);
+                setBeginTime(calendar);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.startOfDay(millis, zone), message);
+
+                calendar = calendar(zone, millis);
+                setEndTime(calendar);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.endOfDay(millis, zone), message);
+
+                calendar = calendar(zone, millis);
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                setBeginTime(calendar);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.firstDayOfMonth(millis, zone), message);
+
+                calendar = calendar(zone, millis);
+                calendar.set(Calendar.DAY_OF_MONTH, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
+                calendar.set(Calendar.HOUR_OF_DAY, 23);
+                calendar.set(Calendar.SECOND, 59);
+                calendar.set(Calendar.MINUTE, 59);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.lastDayOfMonth(millis, zone), message);
+
+                calendar = calendar(zone, millis);
+                calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
+                setBeginTime(calendar);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.firstDayOfWeek(millis, zone), message);
+
+                calendar = calendar(zone, millis);
+                calendar.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
+                setEndTime(calendar);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.lastDayOfWeek(millis, zone), message);
+
+                calendar = calendar(zone, millis);
+                calendar.set(Calendar.DAY_OF_YEAR, 1);
+                setBeginTime(calendar);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.firstDayOfYear(millis, zone), message);
+
+                calendar = calendar(zone, millis);
+                calendar.set(Calendar.DAY_OF_YEAR, calendar.getActualMaximum(Calendar.DAY_OF_YEAR));
+                setEndTime(calendar);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.lastDayOfYear(millis, zone), message);
+
+                int day = 1 + random.nextInt(7);
+                calendar = calendar(zone, millis);
+                calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY + day - 1);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.dayOfWeekBySpecialDay(millis, zone, day), message);
+
+                calendar = calendar(zone, millis);
+                assertEquals(calendar.get(Calendar.DAY_OF_WEEK), EpochDateUtil.dayOfWeek(millis, zone), message);
+                assertEquals(calendar.get(Calendar.WEEK_OF_YEAR), EpochDateUtil.weekOfYear(millis, zone, calendar.getMinimalDaysInFirstWeek()), message);
+                calendar.setMinimalDaysInFirstWeek(4);
+                assertEquals(calendar.get(Calendar.WEEK_OF_YEAR), EpochDateUtil.weekOfYear(millis, zone, 4), message);
+
+                int[] fields = {Calendar.MINUTE, Calendar.HOUR_OF_DAY, Calendar.DAY_OF_MONTH, Calendar.WEEK_OF_YEAR, Calendar.MONTH, Calendar.YEAR};
+                int field = fields[random.nextInt(fields.length)];
+                int amount = random.nextInt(61) - 30;
+                calendar = calendar(zone, millis);
+                calendar.add(field, amount);
+                assertEquals(calendar.getTimeInMillis(), EpochDateUtil.add(millis, zone, field, amount), message + " " + field + " " + amount);
+
+                long other = millis + (long) ((random.nextDouble() - 0.5) * 2 * EpochDateUtil.MILLIS_PER_DAY);
+                Calendar otherCalendar = calendar(zone, other);
+                calendar = calendar(zone, millis);
+                boolean sameDay = calendar.get(Calendar.YEAR) == otherCalendar.get(Calendar.YEAR)
+                        && calendar.get(Calendar.DAY_OF_YEAR) == otherCalendar.get(Calendar.DAY_OF_YEAR);
+                assertEquals(sameDay, EpochDateUtil.isSameDay(millis, other, zone), message);
+            }
+        }
+    }
+
+    @DisplayName("批量计算与逐个计算一致")
+    @Test
+    void bulk() {
+        Random random = new Random(20211201L);
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            //升序为主, 间隔0~3小时, 穿插随机跳跃
+            long[] millis = new long[50000];
+            long current = FROM;
+            for (int i = 0; i < millis.length; i++) {
+                current += (long) (random.nextDouble() * 3 * EpochDateUtil.MILLIS_PER_HOUR);
+                millis[i] = random.nextInt(100) == 0 ? FROM + (long) (random.nextDouble() * (TO - FROM)) : current;
+            }
+            long[] shifted = new long[millis.length];
+            for (int i = 0; i < millis.length; i++) {
+                shifted[i] = millis[i] + (long) (random.nextDouble() * 40 * EpochDateUtil.MILLIS_PER_DAY);
+            }
+            long[] startOfDay = new long[millis.length];
+            long[] firstDayOfMonth = new long[millis.length];
+            long[] firstDayOfWeek = millis.clone();
+            long[] betweenDay = new long[millis.length];
+            int[] dayOfWeek = new int[millis.length];
+            EpochDateUtil.startOfDay(millis, startOfDay, zone);
+            EpochDateUtil.firstDayOfMonth(millis, firstDayOfMonth, zone);
+            EpochDateUtil.firstDayOfWeek(firstDayOfWeek, firstDayOfWeek, zone);
+            EpochDateUtil.dayOfWeek(millis, dayOfWeek, zone);
+            EpochDateUtil.betweenDay(millis, shifted, betweenDay, zone);
+            for (int i = 0; i < millis.length; i++) {
+                String message = zoneId + " " + millis[i];
+                assertEquals(EpochDateUtil.startOfDay(millis[i], zone), startOfDay[i], message);
+                assertEquals(EpochDateUtil.firstDayOfMonth(millis[i], zone), firstDayOfMonth[i], message);
+                assertEquals(EpochDateUtil.firstDayOfWeek(millis[i], zone), firstDayOfWeek[i], message);
+                assertEquals(EpochDateUtil.dayOfWeek(millis[i], zone), dayOfWeek[i], message);
+                assertEquals(EpochDateUtil.localEpochDay(EpochDateUtil.toLocalMillis(shifted[i], zone))
+                        - EpochDateUtil.localEpochDay(EpochDateUtil.toLocalMillis(millis[i], zone)), betweenDay[i], message);
+            }
+        }
+    }
+
+    @DisplayName("相隔天/时/周/月数与java.time一致")
+    @Test
+    void between() {
+        Random random = new Random(20211201L);
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            ZoneId zoneRules = zone.toZoneId();
+            for (int i = 0; i < 20000; i++) {
+                long start = FROM + (long) (random.nextDouble() * (TO - FROM));
+                long end = start + (long) ((random.nextDouble() - 0.3) * 400 * EpochDateUtil.MILLIS_PER_DAY);
+                ZonedDateTime startTime = Instant.ofEpochMilli(start).atZone(zoneRules);
+                ZonedDateTime endTime = Instant.ofEpochMilli(end).atZone(zoneRules);
+                String message = zoneId + " " + start + " " + end;
+                assertEquals(ChronoUnit.DAYS.between(startTime.toLocalDate(), endTime.toLocalDate()), EpochDateUtil.betweenDay(start, end, zone), message);
+                assertEquals(ChronoUnit.MONTHS.between(YearMonth.from(startTime), YearMonth.from(endTime)), EpochDateUtil.betweenMonth(start, end, zone), message);
+                assertEquals(ChronoUnit.WEEKS.between(startTime.toLocalDate().with(DayOfWeek.MONDAY), endTime.toLocalDate().with(DayOfWeek.MONDAY)),
+                        EpochDateUtil.betweenWeek(start, end, zone), message);
+                assertEquals(ChronoUnit.HOURS.between(startTime.truncatedTo(ChronoUnit.HOURS), endTime.truncatedTo(ChronoUnit.HOURS)),
+                        EpochDateUtil.betweenHour(start, end, zone), message);
+            }
+        }
+        //跨夏令时开始: 原实现按零点毫秒差整除, 结果少一天
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+        Calendar calendar = Calendar.getInstance(newYork);
+        calendar.clear();
+        calendar.set(2021, Calendar.MARCH, 1);
+        long march = calendar.getTimeInMillis();
+        calendar.set(2021, Calendar.APRIL, 1);
+        assertEquals(31, EpochDateUtil.betweenDay(march, calendar.getTimeInMillis(), newYork));
+        assertEquals(-31, EpochDateUtil.betweenDay(calendar.getTimeInMillis(), march, newYork));
+        assertEquals(31 * 24 - 1, EpochDateUtil.betweenHour(march, calendar.getTimeInMillis(), newYork));
+    }
+
+    @Test
+    void epochDay() {
+        for (long epochDay = -700000; epochDay < 800000; epochDay += 37) {
+            int ymd = EpochDateUtil.epochDayToYmd(epochDay);
+            assertEquals(epochDay, EpochDateUtil.toEpochDay(ymd / 10000, ymd / 100 % 100, ymd % 100));
+        }
+        assertEquals(0, EpochDateUtil.toEpochDay(1970, 1, 1));
+        assertEquals(EpochDateUtil.toEpochDay(1971, 1, 1), EpochDateUtil.toEpochDay(1970, 13, 1));
+        assertEquals(EpochDateUtil.toEpochDay(1970, 3, 1), EpochDateUtil.toEpochDay(1970, 2, 29));
+    }
+
+    private static Calendar calendar(TimeZone zone, long millis) {
+        Calendar calendar = Calendar.getInstance(zone);
+        calendar.setTimeInMillis(millis);
+        calendar.setFirstDayOfWeek(Calendar.MONDAY);
+        return calendar;
+    }
+
+    private static void setEndTime(Calendar calendar) {
+        calendar.set(Calendar.HOUR_OF_DAY, 23);
+        calendar.set(Calendar.MINUTE, 59);
+        calendar.set(Calendar.SECOND, 59);
+        calendar.set(Calendar.MILLISECOND, 0);
+    }
+
+    private static void setBeginTime(Calendar calendar) {
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+    }
+}